@@ -3,12 +3,10 @@ package com.kiemnv.MindGardAPI;
 import jakarta.annotation.PostConstruct;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.TimeZone;
 
 @SpringBootApplication
-@EnableScheduling
 public class MindGardApiApplication {
 
 	public static void main(String[] args) {
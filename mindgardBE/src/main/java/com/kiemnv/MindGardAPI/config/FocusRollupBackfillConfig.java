@@ -0,0 +1,45 @@
+package com.kiemnv.MindGardAPI.config;
+
+import com.kiemnv.MindGardAPI.repository.PomodoroRepository;
+import com.kiemnv.MindGardAPI.repository.UserDailyFocusRepository;
+import com.kiemnv.MindGardAPI.service.FocusRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+
+/**
+ * Backfill for the user_daily_focus rollup.
+ * Runs automatically when the rollup is empty but sessions exist (first deploy),
+ * or on demand with: java -jar app.jar --backfill-focus-rollup
+ * Season and all-time totals not seeded yet (see season_seeds) are seeded from the rollup afterwards.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class FocusRollupBackfillConfig {
+
+    private static final String BACKFILL_ARG = "--backfill-focus-rollup";
+
+    private final FocusRollupService focusRollupService;
+    private final UserDailyFocusRepository userDailyFocusRepository;
+    private final PomodoroRepository pomodoroRepository;
+
+    @Bean
+    public CommandLineRunner focusRollupBackfill() {
+        return args -> {
+            boolean requested = Arrays.asList(args).contains(BACKFILL_ARG);
+            if (requested) {
+                log.info("Focus rollup backfill requested from command line.");
+                focusRollupService.backfill();
+            } else if (userDailyFocusRepository.count() == 0 && pomodoroRepository.count() > 0) {
+                log.info("Focus rollup is empty but sessions exist. Backfilling...");
+                focusRollupService.backfill();
+            }
+            focusRollupService.backfillSeasons();
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.kiemnv.MindGardAPI.config;
+
+import com.kiemnv.MindGardAPI.entity.UserSeasonFocus;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardSeason;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.leaderboard")
+public class LeaderboardProperties {
+    private List<LeaderboardSeason> seasons = new ArrayList<>();
+
+    /** The all-time total shares user_season_focus, so its id cannot name a season. */
+    public void setSeasons(List<LeaderboardSeason> seasons) {
+        for (LeaderboardSeason season : seasons) {
+            if (UserSeasonFocus.ALLTIME.equals(season.getId())) {
+                throw new IllegalArgumentException("Season id '" + UserSeasonFocus.ALLTIME + "' is reserved");
+            }
+        }
+        this.seasons = seasons;
+    }
+
+    public LeaderboardSeason season(String id) {
+        if (id == null) return null;
+        for (LeaderboardSeason season : seasons) {
+            if (season.getId().equals(id)) return season;
+        }
+        return null;
+    }
+
+    /** Seasons whose range contains the day (seasons may overlap). */
+    public List<LeaderboardSeason> seasonsOn(LocalDate day) {
+        List<LeaderboardSeason> active = new ArrayList<>();
+        for (LeaderboardSeason season : seasons) {
+            if (season.contains(day)) active.add(season);
+        }
+        return active;
+    }
+}
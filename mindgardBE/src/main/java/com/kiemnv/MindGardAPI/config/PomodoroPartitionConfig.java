@@ -0,0 +1,36 @@
+package com.kiemnv.MindGardAPI.config;
+
+import com.kiemnv.MindGardAPI.service.PomodoroPartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Monthly partitioning of pomodoro_sessions.
+ * The first start after deploy converts the plain table (one transaction, table locked while rows are copied);
+ * later starts only make sure the upcoming months are attached.
+ * Only a failed conversion stops startup; a failed maintenance pass is logged and retried by the daily job.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class PomodoroPartitionConfig {
+
+    private final PomodoroPartitionService partitionService;
+
+    @Bean
+    public CommandLineRunner pomodoroPartitions() {
+        return args -> {
+            if (partitionService.ensurePartitioned()) {
+                log.info("pomodoro_sessions converted to monthly partitions.");
+            }
+            try {
+                partitionService.maintain();
+            } catch (Exception e) {
+                log.error("pomodoro_sessions partition maintenance failed, retrying with the daily job: {}", e.getMessage());
+            }
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.kiemnv.MindGardAPI.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduled jobs (leaderboards, rank flushes, stream deltas, compaction).
+ * Off under the bench profile, where the benchmark drives the scheduler itself.
+ */
+@Configuration
+@EnableScheduling
+@Profile("!bench")
+public class SchedulingConfig {
+}
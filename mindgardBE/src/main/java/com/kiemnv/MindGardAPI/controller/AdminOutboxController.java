@@ -0,0 +1,37 @@
+package com.kiemnv.MindGardAPI.controller;
+
+import com.kiemnv.MindGardAPI.dto.response.ApiResponse;
+import com.kiemnv.MindGardAPI.dto.response.OutboxStatsDto;
+import com.kiemnv.MindGardAPI.service.SessionProjectionWorker;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/outbox")
+@RequiredArgsConstructor
+@Tag(name = "Admin – Session outbox", description = "Projection lag and replay of session side effects")
+public class AdminOutboxController {
+
+    private final SessionProjectionWorker projectionWorker;
+
+    @GetMapping("/stats")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Outbox backlog, parked events and projection lag")
+    public ResponseEntity<ApiResponse<OutboxStatsDto>> stats() {
+        return ResponseEntity.ok(ApiResponse.success(projectionWorker.stats(), "Outbox stats retrieved"));
+    }
+
+    @PostMapping("/replay")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Re-queue parked events (all users, or one with userId)")
+    public ResponseEntity<ApiResponse<Map<String, Integer>>> replay(@RequestParam(required = false) Long userId) {
+        int replayed = projectionWorker.replayParked(userId);
+        return ResponseEntity.ok(ApiResponse.success(Map.of("replayed", replayed), "Parked events re-queued"));
+    }
+}
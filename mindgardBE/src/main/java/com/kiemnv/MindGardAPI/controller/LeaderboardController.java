@@ -1,19 +1,32 @@
 package com.kiemnv.MindGardAPI.controller;
 
+import com.kiemnv.MindGardAPI.config.LeaderboardProperties;
 import com.kiemnv.MindGardAPI.dto.response.ApiResponse;
 import com.kiemnv.MindGardAPI.dto.response.LeaderboardEntryDto;
 import com.kiemnv.MindGardAPI.dto.response.LeaderboardResponseDto;
+import com.kiemnv.MindGardAPI.dto.response.LeaderboardSnapshotResponseDto;
 import com.kiemnv.MindGardAPI.entity.User;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardMetric;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardRegion;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardSeason;
+import com.kiemnv.MindGardAPI.scheduler.LeaderboardScheduler;
+import com.kiemnv.MindGardAPI.service.LeaderboardResponseCache;
 import com.kiemnv.MindGardAPI.service.LeaderboardService;
+import com.kiemnv.MindGardAPI.service.LeaderboardStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -26,33 +39,148 @@ import java.util.List;
 public class LeaderboardController {
 
     private final LeaderboardService leaderboardService;
+    private final LeaderboardResponseCache responseCache;
+    private final LeaderboardStreamService leaderboardStreamService;
+    private final LeaderboardProperties leaderboardProperties;
+
+    private static final int MAX_WINDOW = 50;
+    private static final int MAX_PAGE_SIZE = 100;
 
     @GetMapping("/real")
-    @Operation(summary = "Get leaderboard (cached)", description = "Returns leaderboard entries + current user's entry pinned separately.")
+    @Operation(summary = "Get leaderboard (cached)", description = "Returns leaderboard entries + current user's entry pinned separately. " +
+            "around=me&window=N returns the rows around the current user; cursor/limit page through the full ranking. " +
+            "The default global board carries an ETag and answers If-None-Match with 304. " +
+            "metric selects focus (default), pomodoros, streak or xp. scope=room&roomId=N ranks a focus room's members. " +
+            "region=asia|europe|americas selects a regional board whose days follow that region's timezone. " +
+            "period=alltime and period=season (season=<id>, default the current one) rank lifetime or season focus time.")
     @SecurityRequirement(name = "bearerAuth")
-    public ResponseEntity<ApiResponse<LeaderboardResponseDto>> getRealLeaderboard(
+    public ResponseEntity<ApiResponse<?>> getRealLeaderboard(
             @RequestParam(defaultValue = "weekly") String period,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestParam(defaultValue = "global") String scope,
+            @RequestParam(defaultValue = "focus") String metric,
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) String season,
+            @RequestParam(required = false) Long roomId,
+            @RequestParam(required = false) String around,
+            @RequestParam(defaultValue = "5") int window,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             Authentication authentication) {
-        log.info("[LeaderboardController] getRealLeaderboard: period={}, date={}, scope={}", period, date, scope);
+        log.info("[LeaderboardController] getRealLeaderboard: period={}, metric={}, region={}, date={}, scope={}, around={}, cursor={}, limit={}",
+                period, metric, region, date, scope, around, cursor, limit);
 
-        if (date == null) date = LocalDate.now();
+        LeaderboardMetric boardMetric = LeaderboardMetric.from(metric);
+        LeaderboardRegion boardRegion = LeaderboardRegion.from(region);
+        if (date == null) date = LeaderboardService.today(boardRegion);
+        if ("season".equals(period) || period.startsWith("season:")) {
+            // "season:<id>" names a season directly; only configured seasons have a board
+            String seasonId = "season".equals(period) ? season : period.substring("season:".length());
+            LeaderboardSeason boardSeason = seasonId != null
+                    ? leaderboardProperties.season(seasonId)
+                    : leaderboardProperties.seasonsOn(date).stream().findFirst().orElse(null);
+            if (boardSeason == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("Season not found", 404));
+            }
+            period = boardSeason.period();
+        }
+        if (LeaderboardScheduler.isStanding(period)) {
+            // All-time and season boards rank focus time only and are global
+            boardMetric = LeaderboardMetric.FOCUS;
+            boardRegion = null;
+        }
         Long userId = null;
         if (authentication != null && authentication.getPrincipal() instanceof User) {
             userId = ((User) authentication.getPrincipal()).getId();
         }
 
-        List<LeaderboardEntryDto> entries = leaderboardService.getCachedLeaderboard(period, date, scope, userId);
+        boolean room = "room".equals(scope);
+        boolean global = !"friends".equals(scope) && !room;
+        boolean windowed = global && "me".equals(around) && userId != null;
+        boolean paged = global && !windowed && (cursor != null || limit != null);
+
+        if (global && !windowed && !paged) {
+            return getGlobalBoard(period, date, boardMetric, boardRegion, userId, ifNoneMatch);
+        }
+
+        LeaderboardResponseDto response;
+        if (room) {
+            if (roomId == null) {
+                return ResponseEntity.badRequest().body(ApiResponse.error("roomId is required for scope=room", 400));
+            }
+            response = leaderboardService.getRoomLeaderboard(period, date, boardMetric, roomId);
+            if (response == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("Room not found", 404));
+            }
+        } else if (windowed) {
+            int clampedWindow = Math.max(1, Math.min(window, MAX_WINDOW));
+            response = leaderboardService.getRankWindow(period, date, boardMetric, boardRegion, userId, clampedWindow);
+        } else if (paged) {
+            int pageSize = Math.max(1, Math.min(limit != null ? limit : MAX_PAGE_SIZE, MAX_PAGE_SIZE));
+            try {
+                response = leaderboardService.getRankPage(period, date, boardMetric, boardRegion, cursor, pageSize);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), 400));
+            }
+        } else {
+            List<LeaderboardEntryDto> entries = leaderboardService.getCachedLeaderboard(period, date, boardMetric, boardRegion, scope, userId);
+            response = LeaderboardResponseDto.builder()
+                    .entries(entries)
+                    .build();
+        }
+
+        // Friends and room boards are global, so the pinned entry is too
+        LeaderboardRegion entryRegion = global ? boardRegion : null;
+        LeaderboardEntryDto currentUser = userId != null
+                ? leaderboardService.getCurrentUserEntry(period, date, boardMetric, entryRegion, userId)
+                : null;
+        response.setCurrentUser(currentUser);
+
+        return ResponseEntity.ok(ApiResponse.success(response, "Leaderboard retrieved"));
+    }
+
+    /**
+     * Global board served from the pre-serialized snapshot. The ETag only changes with the
+     * board version or the viewer's own placement, so polling clients get 304 without any database access.
+     */
+    private ResponseEntity<ApiResponse<?>> getGlobalBoard(String period, LocalDate date, LeaderboardMetric metric,
+                                                         LeaderboardRegion region, Long userId, String ifNoneMatch) {
+        String periodKey = LeaderboardScheduler.boardKey(period, date, metric, region);
+        String etag = responseCache.etag(periodKey, userId);
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        String entriesJson = responseCache.entriesJson(periodKey,
+                () -> leaderboardService.getCachedLeaderboard(period, date, metric, region, "global", null));
         LeaderboardEntryDto currentUser = userId != null
-                ? leaderboardService.getCurrentUserEntry(period, date, userId)
+                ? leaderboardService.getCurrentUserEntry(period, date, metric, region, userId)
                 : null;
 
-        LeaderboardResponseDto response = LeaderboardResponseDto.builder()
-                .entries(entries)
+        LeaderboardSnapshotResponseDto response = LeaderboardSnapshotResponseDto.builder()
+                .entries(entriesJson)
                 .currentUser(currentUser)
                 .build();
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success(response, "Leaderboard retrieved"));
+    }
 
-        return ResponseEntity.ok(ApiResponse.success(response, "Leaderboard retrieved"));
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream leaderboard changes (SSE)", description = "Sends a 'snapshot' event with the top 100, " +
+            "then coalesced 'delta' events (changed rows + removed user ids) whenever the visible board changes.")
+    @SecurityRequirement(name = "bearerAuth")
+    public SseEmitter stream(@RequestParam(defaultValue = "daily") String period) {
+        return leaderboardStreamService.subscribe(period);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            if (candidate.trim().equals(etag)) return true;
+        }
+        return false;
     }
 }
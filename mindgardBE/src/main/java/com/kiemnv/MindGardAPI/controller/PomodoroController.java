@@ -1,8 +1,12 @@
 package com.kiemnv.MindGardAPI.controller;
 
+import com.kiemnv.MindGardAPI.dto.request.DistractionEventRequest;
 import com.kiemnv.MindGardAPI.dto.request.PomodoroRecordRequest;
 import com.kiemnv.MindGardAPI.dto.response.ApiResponse;
 import com.kiemnv.MindGardAPI.dto.response.FocusSessionDto;
+import com.kiemnv.MindGardAPI.dto.response.FocusSessionPageDto;
+import com.kiemnv.MindGardAPI.dto.response.PomodoroBatchResultDto;
+import com.kiemnv.MindGardAPI.dto.response.PomodoroHeartbeatDto;
 import com.kiemnv.MindGardAPI.entity.PomodoroSession;
 import com.kiemnv.MindGardAPI.entity.User;
 import com.kiemnv.MindGardAPI.service.PomodoroService;
@@ -12,11 +16,15 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -30,6 +38,11 @@ public class PomodoroController {
     private final PomodoroService pomodoroService;
     private final GeminiService geminiService;
 
+    private static final int MAX_BATCH = 500;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_DISTRACTIONS = 200;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     @GetMapping
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "List sessions (paged)")
@@ -39,16 +52,56 @@ public class PomodoroController {
         return ResponseEntity.ok(ApiResponse.success(page, "Sessions retrieved"));
     }
 
-    /** FE extension: record completed focus (like pomodoroStats.recordSession) */
+    /**
+     * FE extension: record completed focus (like pomodoroStats.recordSession).
+     * Retries carrying the same sessionUuid get the originally recorded session back.
+     */
     @PostMapping("/record")
     @SecurityRequirement(name = "bearerAuth")
-    @Operation(summary = "Record completed focus session (FE: dateISO, durationMin, taskTitle)")
+    @Operation(summary = "Record completed focus session (FE: dateISO, durationMin, taskTitle, optional sessionUuid)")
     public ResponseEntity<ApiResponse<PomodoroSession>> record(@RequestBody PomodoroRecordRequest req, Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        PomodoroSession s = pomodoroService.record(user, req);
+        PomodoroSession s;
+        try {
+            s = pomodoroService.recentlyRecorded(user, req);
+            if (s != null) return ResponseEntity.ok(ApiResponse.success(s, "Focus session already recorded"));
+            s = pomodoroService.record(user, req);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), 400));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same sessionUuid committed first
+            s = pomodoroService.findRecorded(user, req).orElseThrow(() -> e);
+        }
         return ResponseEntity.ok(ApiResponse.success(s, "Focus session recorded"));
     }
 
+    /** FE extension: upload sessions queued while offline in one round trip (same item shape as /record) */
+    @PostMapping("/record/batch")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Record many focus sessions at once (FE offline queue, max " + MAX_BATCH + ")")
+    public ResponseEntity<ApiResponse<PomodoroBatchResultDto>> recordBatch(@RequestBody List<PomodoroRecordRequest> reqs, Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        if (reqs == null || reqs.size() > MAX_BATCH) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Batch must contain at most " + MAX_BATCH + " sessions", 400));
+        }
+        List<PomodoroSession> recorded;
+        try {
+            recorded = pomodoroService.recordBatch(user, reqs);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), 400));
+        } catch (DataIntegrityViolationException e) {
+            // An overlapping upload recorded some of these keys first; a retry skips them
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error("Sessions were recorded concurrently, retry the batch", 409));
+        }
+        long totalMinutes = recorded.stream().mapToLong(s -> s.getDurationSeconds() / 60).sum();
+        PomodoroBatchResultDto result = PomodoroBatchResultDto.builder()
+                .recorded(recorded.size())
+                .duplicates(reqs.size() - recorded.size())
+                .totalMinutes(totalMinutes)
+                .build();
+        return ResponseEntity.ok(ApiResponse.success(result, "Focus sessions recorded"));
+    }
+
     /** FE extension: list for Statistics / readSessions – [{ dateISO, durationMin, taskTitle }] */
     @GetMapping("/focus-sessions")
     @SecurityRequirement(name = "bearerAuth")
@@ -59,6 +112,34 @@ public class PomodoroController {
         return ResponseEntity.ok(ApiResponse.success(list, "Focus sessions retrieved"));
     }
 
+    /** Keyset-paged focus sessions, newest first; pass nextCursor back to get the following page */
+    @GetMapping("/focus-sessions/page")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Page through focus sessions (cursor/limit, max " + MAX_PAGE_SIZE + ")")
+    public ResponseEntity<ApiResponse<FocusSessionPageDto>> focusSessionPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        try {
+            FocusSessionPageDto page = pomodoroService.pageFocusSessions(user, cursor, pageSize);
+            return ResponseEntity.ok(ApiResponse.success(page, "Focus sessions retrieved"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), 400));
+        }
+    }
+
+    /** Full focus history as NDJSON (one { dateISO, durationMin, taskTitle } per line), newest first */
+    @GetMapping("/focus-sessions/stream")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Stream all focus sessions as NDJSON")
+    public ResponseEntity<StreamingResponseBody> focusSessionStream(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        StreamingResponseBody body = out -> pomodoroService.streamFocusSessions(user, out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
     @PostMapping("/start")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Start pomodoro")
@@ -68,6 +149,35 @@ public class PomodoroController {
         return ResponseEntity.ok(ApiResponse.success(s, "Pomodoro started"));
     }
 
+    /** Sent by the running timer (FE/extension) while the session is open; see heartbeatTimeoutSeconds */
+    @PostMapping("/{id}/heartbeat")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Heartbeat for a running pomodoro (server finalizes sessions whose heartbeats stop)")
+    public ResponseEntity<ApiResponse<PomodoroHeartbeatDto>> heartbeat(@PathVariable Long id, Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        PomodoroHeartbeatDto result = pomodoroService.heartbeat(id, user);
+        return ResponseEntity.ok(ApiResponse.success(result, "Heartbeat received"));
+    }
+
+    /** Extension: tab switches, blocked-site hits etc. during a running session, sent in small batches */
+    @PostMapping("/{id}/distractions")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Report distraction events for a running pomodoro (max " + MAX_DISTRACTIONS + " per call)")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> distractions(@PathVariable Long id, @RequestBody List<DistractionEventRequest> reqs, Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        if (reqs == null || reqs.size() > MAX_DISTRACTIONS) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Send at most " + MAX_DISTRACTIONS + " events per call", 400));
+        }
+        try {
+            int accepted = pomodoroService.recordDistractions(id, user, reqs);
+            return ResponseEntity.accepted().body(ApiResponse.success(Map.of("accepted", accepted), "Distractions recorded"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), 400));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage(), 409));
+        }
+    }
+
     @PostMapping("/{id}/stop")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Stop pomodoro")
@@ -0,0 +1,18 @@
+package com.kiemnv.MindGardAPI.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Extension distraction report for a running session.
+ * type: TAB_SWITCH, BLOCKED_SITE, IDLE or INTERRUPTION; occurredISO defaults to the server time.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistractionEventRequest {
+    private String type;
+    private String detail;      // e.g. "youtube.com", at most 255 chars
+    private String occurredISO; // e.g. "2025-01-15T10:30:00.000Z"
+}
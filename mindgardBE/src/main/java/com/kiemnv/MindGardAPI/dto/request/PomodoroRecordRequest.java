@@ -16,4 +16,5 @@ public class PomodoroRecordRequest {
     private Integer durationMin;
     private String taskTitle;
     private Boolean isPartial; // If true, record as ABORTED (partial session), otherwise FINISHED
+    private String sessionUuid; // Optional idempotency key generated by the client, at most 64 chars
 }
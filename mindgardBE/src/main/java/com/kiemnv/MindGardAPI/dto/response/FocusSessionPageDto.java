@@ -0,0 +1,20 @@
+package com.kiemnv.MindGardAPI.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of GET /api/pomodoros/focus-sessions/page, newest first.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FocusSessionPageDto {
+    private List<FocusSessionDto> items;
+    private String nextCursor; // Keyset cursor for the next page (null on the last page)
+}
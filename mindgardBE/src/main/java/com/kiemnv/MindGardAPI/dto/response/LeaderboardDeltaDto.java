@@ -0,0 +1,23 @@
+package com.kiemnv.MindGardAPI.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * SSE "delta" event for /api/leaderboard/stream: rows of the visible top-N that
+ * were added or moved since the previous event, and users that left it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardDeltaDto {
+    private String periodKey;
+    private Long version;
+    private List<LeaderboardEntryDto> changed;
+    private List<Long> removed;
+}
@@ -18,8 +18,11 @@ public class LeaderboardEntryDto {
     private String bio;
     private Integer level;
     private Long totalMinutes; // Total focus time in minutes for the period
+    private String metric; // "focus", "pomodoros", "streak" or "xp"
+    private Long score; // Value ranked by: focus seconds, finished pomodoros, streak days or XP
     private Integer rank;
     private String country; // Optional country code
     private String trend; // "up", "down", "stable" - compared to previous period
     private Integer previousRank; // Rank in previous period
+    private Double percentile; // "Top X%" placement among all participants of the period (e.g. 4.2)
 }
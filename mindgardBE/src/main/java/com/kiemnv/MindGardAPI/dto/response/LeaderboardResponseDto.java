@@ -14,4 +14,6 @@ import java.util.List;
 public class LeaderboardResponseDto {
     private List<LeaderboardEntryDto> entries;
     private LeaderboardEntryDto currentUser;
+    private String nextCursor; // Keyset cursor for the next page (null on the last page)
+    private Integer totalParticipants; // Size of the full ranked population of the period
 }
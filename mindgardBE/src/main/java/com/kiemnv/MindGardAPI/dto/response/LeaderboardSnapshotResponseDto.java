@@ -0,0 +1,21 @@
+package com.kiemnv.MindGardAPI.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Same JSON shape as {@link LeaderboardResponseDto}, but the shared entries array
+ * is written from a pre-serialized snapshot instead of being re-serialized per request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardSnapshotResponseDto {
+    @JsonRawValue
+    private String entries; // JSON array of LeaderboardEntryDto
+    private LeaderboardEntryDto currentUser;
+}
@@ -0,0 +1,24 @@
+package com.kiemnv.MindGardAPI.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Session outbox health: backlog from the database, throughput and lag from this instance's workers.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxStatsDto {
+    private Long pending;
+    private Long parked; // gave up after max attempts, waiting for a replay
+    private Long oldestPendingAgeMs;
+    private Long processedTotal;
+    private Long failedTotal;
+    private Integer lastBatchSize;
+    private Long lastBatchMs;
+    private Long lastBatchMaxLagMs; // commit of the session -> projection applied, worst event of the last batch
+}
@@ -0,0 +1,19 @@
+package com.kiemnv.MindGardAPI.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of POST /api/pomodoros/record/batch.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PomodoroBatchResultDto {
+    private Integer recorded;
+    private Integer duplicates; // items skipped because their sessionUuid was already recorded
+    private Long totalMinutes;
+}
@@ -0,0 +1,21 @@
+package com.kiemnv.MindGardAPI.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of POST /api/pomodoros/{id}/heartbeat. A status other than RUNNING means the server already
+ * finalized the session (planned end reached or heartbeats lapsed) and the client should stop its timer.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PomodoroHeartbeatDto {
+    private Long id;
+    private String status;
+    private Long remainingSeconds; // null for sessions without plannedSeconds
+    private Long heartbeatTimeoutSeconds; // send the next heartbeat well before this
+}
@@ -0,0 +1,55 @@
+package com.kiemnv.MindGardAPI.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only distraction reported by the extension during a RUNNING session.
+ * Written in batches by DistractionBuffer; counts are folded into the session row when it is finalized.
+ */
+@Entity
+@Table(name = "distraction_events",
+        indexes = @Index(name = "idx_distraction_events_session", columnList = "session_id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistractionEvent {
+
+    public enum Type {
+        TAB_SWITCH, BLOCKED_SITE, IDLE, INTERRUPTION;
+
+        /** IDLE and INTERRUPTION broke focus (session.interruptions); the rest count as distractions */
+        public boolean isInterruption() {
+            return this == IDLE || this == INTERRUPTION;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Type type;
+
+    /** e.g. the blocked host or the tab's domain */
+    @Column(length = 255)
+    private String detail;
+
+    /** Client time of the event, UTC */
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(name = "created_at")
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,40 @@
+package com.kiemnv.MindGardAPI.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A closed leaderboard period compacted into one row.
+ * The payload holds the whole ranked population in LeaderboardArchiveCodec format.
+ */
+@Entity
+@Table(name = "leaderboard_archives")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardArchive {
+
+    /** Same key as leaderboard_entries.period_key, e.g. "daily:2026-03-04" or "xp:weekly:2026-03-02" */
+    @Id
+    @Column(name = "period_key", length = 64)
+    private String periodKey;
+
+    @Column(nullable = false, length = 20)
+    private String period;
+
+    @Column(nullable = false, length = 20)
+    private String metric;
+
+    @Column(name = "entry_count")
+    private Integer entryCount;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] payload;
+
+    @Column(name = "created_at")
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "leaderboard_entries",
-        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "period_key"}))
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "period_key"}),
+        indexes = @Index(name = "idx_leaderboard_entries_period_key_rank", columnList = "period_key, current_rank"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -27,10 +28,21 @@ public class LeaderboardEntry {
     @Column(nullable = false)
     private String period;
 
-    /** Specific period key, e.g. "daily:2026-03-04", "weekly:2026-03-03", "monthly:2026-03" */
+    /**
+     * Specific period key, e.g. "daily:2026-03-04", "weekly:2026-03-03", "monthly:2026-03".
+     * Non-focus metrics prefix it, e.g. "xp:weekly:2026-03-03".
+     */
     @Column(name = "period_key", nullable = false)
     private String periodKey;
 
+    /** Ranked metric: "focus", "pomodoros", "streak" or "xp" (null on rows written before metrics existed = focus) */
+    @Column(length = 20)
+    @Builder.Default
+    private String metric = "focus";
+
+    /** Value of the metric this row is ranked by (focus seconds for the focus board) */
+    private Long score;
+
     /** Total focus seconds in this period */
     @Column(name = "total_seconds")
     private Long totalSeconds;
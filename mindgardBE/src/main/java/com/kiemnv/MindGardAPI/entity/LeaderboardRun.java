@@ -0,0 +1,50 @@
+package com.kiemnv.MindGardAPI.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One leaderboard batch run by the elected scheduler instance.
+ * Other replicas watch the latest run to know when to reload their rank indexes.
+ */
+@Entity
+@Table(name = "leaderboard_runs",
+        indexes = @Index(name = "idx_leaderboard_runs_started_at", columnList = "started_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "instance_id", nullable = false, length = 128)
+    private String instanceId;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    /** Rows upserted into leaderboard_entries */
+    @Column(name = "rows_written")
+    @Builder.Default
+    private Integer rowsWritten = 0;
+
+    /** Rows removed from leaderboard_entries (users who dropped off the top 100) */
+    @Column(name = "rows_deleted")
+    @Builder.Default
+    private Integer rowsDeleted = 0;
+
+    @Column(length = 20)
+    @Builder.Default
+    private String status = "COMPLETED";
+}
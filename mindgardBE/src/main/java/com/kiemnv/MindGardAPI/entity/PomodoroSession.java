@@ -7,7 +7,14 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "pomodoro_sessions")
+/*
+ * Range-partitioned by month on end_at (see PomodoroPartitionService), so unique keys must include end_at:
+ * a retried record carries the same dateISO, so (user_id, session_uuid, end_at) still rejects the duplicate.
+ */
+@Table(name = "pomodoro_sessions",
+        indexes = @Index(name = "idx_pomodoro_sessions_user_status_start", columnList = "user_id, status, start_at, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_pomodoro_sessions_user_session_uuid",
+                columnNames = {"user_id", "session_uuid", "end_at"}))
 @Data
 @Builder
 @NoArgsConstructor
@@ -45,6 +52,18 @@ public class PomodoroSession {
     @Enumerated(EnumType.STRING)
     private Status status;
 
+    /** Planned length of a RUNNING session; the server finishes it at startAt + plannedSeconds */
+    @Column(name = "planned_seconds")
+    private Long plannedSeconds;
+
+    /** Last client heartbeat of a RUNNING session; without one for a while the session is aborted */
+    @Column(name = "last_heartbeat_at")
+    private LocalDateTime lastHeartbeatAt;
+
+    /** Optional client idempotency key; a retried record with the same key returns the original session */
+    @Column(name = "session_uuid", length = 64)
+    private String sessionUuid;
+
     @Column(name = "created_at")
     @Builder.Default
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
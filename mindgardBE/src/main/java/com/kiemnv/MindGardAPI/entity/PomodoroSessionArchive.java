@@ -0,0 +1,43 @@
+package com.kiemnv.MindGardAPI.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One chunk of a detached pomodoro_sessions month partition.
+ * The payload is deflate-compressed NDJSON, one row_to_json(pomodoro_sessions row) per line,
+ * so a month can be restored with json_populate_record.
+ */
+@Entity
+@Table(name = "pomodoro_session_archives",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"month", "chunk"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PomodoroSessionArchive {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** First day of the archived end_at month */
+    @Column(nullable = false)
+    private LocalDate month;
+
+    @Column(nullable = false)
+    private Integer chunk;
+
+    @Column(name = "session_count")
+    private Integer sessionCount;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] payload;
+
+    @Column(name = "created_at")
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
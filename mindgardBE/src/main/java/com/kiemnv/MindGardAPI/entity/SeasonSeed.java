@@ -0,0 +1,27 @@
+package com.kiemnv.MindGardAPI.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a season (or {@link UserSeasonFocus#ALLTIME}) whose user_season_focus totals were seeded
+ * from the daily rollup. Rows written by live sessions say nothing about history, so seeding is
+ * decided by this marker, not by whether totals exist.
+ */
+@Entity
+@Table(name = "season_seeds")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeasonSeed {
+
+    @Id
+    @Column(name = "season_id", length = 50)
+    private String seasonId;
+
+    @Column(name = "seeded_at", nullable = false)
+    private LocalDateTime seededAt;
+}
@@ -0,0 +1,56 @@
+package com.kiemnv.MindGardAPI.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row written in the same transaction as a recorded session.
+ * SessionProjectionWorker applies its side effects (rollup, stats, streak, XP, leaderboard) later;
+ * an event is pending until processed_at is set, and parked after too many failed attempts.
+ */
+@Entity
+@Table(name = "session_outbox",
+        indexes = @Index(name = "idx_session_outbox_pending", columnList = "processed_at, id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /** Recorded session; null for batch uploads, whose ids are not read back */
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    /** Session end in UTC */
+    @Column(name = "ended_at", nullable = false)
+    private LocalDateTime endedAt;
+
+    @Column(name = "duration_seconds", nullable = false)
+    private Long durationSeconds;
+
+    /** FINISHED (true) or ABORTED/partial (false) */
+    @Column(nullable = false)
+    private Boolean finished;
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
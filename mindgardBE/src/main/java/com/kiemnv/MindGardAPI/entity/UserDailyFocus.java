@@ -0,0 +1,57 @@
+package com.kiemnv.MindGardAPI.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Per-user daily focus rollup, maintained in the same transaction as each session insert.
+ * Weekly/monthly leaderboards sum at most 31 of these rows per user instead of raw sessions.
+ * Only FINISHED/ABORTED sessions of at least 60 seconds are counted (same rule as the leaderboard).
+ * The day is the session's end in the user's leaderboard region zone, resolved at write time.
+ */
+@Entity
+@Table(name = "user_daily_focus",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "day"}),
+        indexes = @Index(name = "idx_user_daily_focus_day", columnList = "day"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDailyFocus {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    /** Day of the session's end, in the region's zone */
+    @Column(nullable = false)
+    private LocalDate day;
+
+    /** LeaderboardRegion id of the user when the row was last written */
+    @Column(length = 20)
+    @Builder.Default
+    private String region = "asia";
+
+    /** Total focus seconds on this day */
+    @Builder.Default
+    private Long seconds = 0L;
+
+    /** Number of FINISHED sessions on this day */
+    @Builder.Default
+    private Integer finished = 0;
+
+    /** Number of ABORTED (partial) sessions on this day */
+    @Builder.Default
+    private Integer partial = 0;
+
+    @Column(name = "updated_at")
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,44 @@
+package com.kiemnv.MindGardAPI.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-user running focus total of one leaderboard season, incremented with each session
+ * (same qualifying rule as the daily rollup). Season boards load from these rows only.
+ * The reserved season id {@link #ALLTIME} holds the lifetime total ranked by the all-time board.
+ */
+@Entity
+@Table(name = "user_season_focus",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "season_id"}),
+        indexes = @Index(name = "idx_user_season_focus_season", columnList = "season_id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSeasonFocus {
+
+    /** Season id of the lifetime total; never a configured season */
+    public static final String ALLTIME = "alltime";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    /** LeaderboardSeason id from app.leaderboard.seasons */
+    @Column(name = "season_id", nullable = false, length = 50)
+    private String seasonId;
+
+    @Builder.Default
+    private Long seconds = 0L;
+
+    @Column(name = "updated_at")
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,8 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+/**
+ * Published when a user's focus totals changed (session recorded or stopped).
+ * Handled after commit by LeaderboardUpdateQueue.
+ */
+public record FocusRecordedEvent(Long userId) {
+}
@@ -0,0 +1,181 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranking of a closed period, computed once from the rollup and never updated afterwards.
+ * Held as parallel primitive arrays in rank order (score desc, userId asc) plus a
+ * userId -> rank table, so a board costs about 40 bytes per user and range reads are array slices.
+ * Profiles are not frozen: rows are rendered with current names and avatars.
+ */
+public class FrozenBoard implements RankView {
+
+    @Getter
+    private final String periodKey;
+    /** Rank order: userIds[i] holds rank i + 1 with scores[i] */
+    private final long[] userIds;
+    private final long[] scores;
+    /** Focus seconds in the period, aligned with userIds, for the minutes column of non-focus boards */
+    private final long[] focusSeconds;
+    /** userId -> rank in this period, for O(1) lookups when this board is the "previous period" */
+    private final LongIntHashMap ranks;
+    /** userId -> rank in the previous period; null when the metric has no trend (streak) */
+    @Getter
+    private final LongIntHashMap previousRanks;
+    @Getter
+    private final LocalDateTime computedAt = LocalDateTime.now();
+
+    /**
+     * @param userIds      users in rank order
+     * @param scores       scores aligned with userIds
+     * @param focusSeconds focus seconds aligned with userIds
+     */
+    public FrozenBoard(String periodKey, long[] userIds, long[] scores, long[] focusSeconds, LongIntHashMap previousRanks) {
+        this.periodKey = periodKey;
+        this.userIds = userIds;
+        this.scores = scores;
+        this.focusSeconds = focusSeconds;
+        this.previousRanks = previousRanks;
+        this.ranks = new LongIntHashMap(userIds.length);
+        for (int i = 0; i < userIds.length; i++) ranks.put(userIds[i], i + 1);
+    }
+
+    /** Board of userId -> score pairs in any order; users without focus seconds get 0. */
+    public static FrozenBoard of(String periodKey, Map<Long, Long> scores, LongIntHashMap previousRanks,
+                                 Map<Long, Long> focusSeconds) {
+        long[][] rows = new long[scores.size()][];
+        int n = 0;
+        for (Map.Entry<Long, Long> e : scores.entrySet()) rows[n++] = new long[]{e.getKey(), e.getValue()};
+        Arrays.sort(rows, (a, b) -> compare(a[1], a[0], b[1], b[0]));
+        long[] userIds = new long[n];
+        long[] sorted = new long[n];
+        long[] seconds = new long[n];
+        for (int i = 0; i < n; i++) {
+            userIds[i] = rows[i][0];
+            sorted[i] = rows[i][1];
+            seconds[i] = focusSeconds.getOrDefault(userIds[i], 0L);
+        }
+        return new FrozenBoard(periodKey, userIds, sorted, seconds, previousRanks);
+    }
+
+    /** Rank of a user in this period, or null if the user is not ranked. */
+    @Override
+    public Integer rankOf(long userId) {
+        int rank = ranks.get(userId, 0);
+        return rank > 0 ? rank : null;
+    }
+
+    @Override
+    public Long scoreOf(long userId) {
+        int rank = ranks.get(userId, 0);
+        return rank > 0 ? scores[rank - 1] : null;
+    }
+
+    /** Exact "top X%" placement: share of users scoring at least this much, rounded to one decimal. */
+    @Override
+    public Double topPercent(long score) {
+        if (scores.length == 0) return null;
+        int atOrAbove = Math.max(1, positionAfter(score, Long.MAX_VALUE));
+        double percent = Math.min(100.0, 100.0 * atOrAbove / scores.length);
+        return Math.max(0.1, Math.round(percent * 10) / 10.0);
+    }
+
+    @Override
+    public int size() {
+        return userIds.length;
+    }
+
+    @Override
+    public List<RankedScore> range(int offset, int limit) {
+        if (offset < 0) offset = 0;
+        if (limit <= 0 || offset >= userIds.length) return Collections.emptyList();
+        return slice(offset, (int) Math.min(userIds.length, (long) offset + limit));
+    }
+
+    @Override
+    public List<RankedScore> after(long score, long userId, int limit) {
+        int from = positionAfter(score, userId);
+        if (limit <= 0 || from >= userIds.length) return Collections.emptyList();
+        return slice(from, (int) Math.min(userIds.length, (long) from + limit));
+    }
+
+    @Override
+    public List<RankedScore> subset(Collection<Long> members) {
+        int[] found = new int[members.size()];
+        int k = 0;
+        for (Long userId : members) {
+            int rank = userId != null ? ranks.get(userId, 0) : 0;
+            if (rank > 0) found[k++] = rank;
+        }
+        Arrays.sort(found, 0, k);
+        List<RankedScore> out = new ArrayList<>(k);
+        for (int i = 0; i < k; i++) {
+            if (i > 0 && found[i] == found[i - 1]) continue; // same user listed twice
+            out.add(new RankedScore(userIds[found[i] - 1], scores[found[i] - 1], out.size() + 1));
+        }
+        return out;
+    }
+
+    public Integer previousRankOf(long userId) {
+        if (previousRanks == null) return null;
+        int rank = previousRanks.get(userId, 0);
+        return rank > 0 ? rank : null;
+    }
+
+    public String trendOf(long userId) {
+        if (previousRanks == null) return null;
+        Integer rank = rankOf(userId);
+        return rank != null ? trend(rank, previousRankOf(userId)) : null;
+    }
+
+    /** Focus seconds of a user in the period, 0 if not ranked. */
+    public long focusSecondsOf(long userId) {
+        int rank = ranks.get(userId, 0);
+        return rank > 0 ? focusSeconds[rank - 1] : 0L;
+    }
+
+    public Long focusMinutesOf(long userId) {
+        return focusSecondsOf(userId) / 60;
+    }
+
+    /** "up" for new entries and climbers, "down" for fallers, "stable" otherwise. */
+    public static String trend(int rank, Integer previousRank) {
+        if (previousRank == null || rank < previousRank) return "up";
+        if (rank > previousRank) return "down";
+        return "stable";
+    }
+
+    private List<RankedScore> slice(int from, int to) {
+        List<RankedScore> out = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) out.add(new RankedScore(userIds[i], scores[i], i + 1));
+        return out;
+    }
+
+    /** Number of entries ordered at or before (score, userId): binary search over the rank order. */
+    private int positionAfter(long score, long userId) {
+        int lo = 0;
+        int hi = userIds.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(scores[mid], userIds[mid], score, userId) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int compare(long scoreA, long userIdA, long scoreB, long userIdB) {
+        if (scoreA != scoreB) return scoreA > scoreB ? -1 : 1;
+        return Long.compare(userIdA, userIdB);
+    }
+}
@@ -0,0 +1,130 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Binary format of leaderboard_archives.payload, deflate-compressed:
+ * <pre>
+ *   version:u8  flags:u8  count:varint
+ *   count x { userId, score, rank, focusSeconds - score : zigzag varint delta to previous row
+ *             [previousRank : varint, 0 = none]   (when flags has HAS_PREVIOUS_RANKS) }
+ * </pre>
+ * Rows are stored in rank order, so rank and score deltas are tiny.
+ */
+public final class LeaderboardArchiveCodec {
+
+    private static final int VERSION = 1;
+    private static final int HAS_PREVIOUS_RANKS = 1;
+
+    private LeaderboardArchiveCodec() {
+    }
+
+    /** Encode rows (rank order). Trends are not stored; they follow from rank and previous rank. */
+    public static byte[] encode(List<LeaderboardRow> rows, boolean withPreviousRanks) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows.size() * 6 + 16);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_COMPRESSION))) {
+            out.write(VERSION);
+            out.write(withPreviousRanks ? HAS_PREVIOUS_RANKS : 0);
+            writeVarint(out, rows.size());
+            long userId = 0, score = 0, rank = 0;
+            for (LeaderboardRow row : rows) {
+                long rowScore = row.getScore() != null ? row.getScore() : 0L;
+                long rowRank = row.getRank() != null ? row.getRank() : 0L;
+                long seconds = row.getTotalSeconds() != null ? row.getTotalSeconds() : rowScore;
+                writeVarint(out, zigzag(row.getUserId() - userId));
+                writeVarint(out, zigzag(rowScore - score));
+                writeVarint(out, zigzag(rowRank - rank));
+                writeVarint(out, zigzag(seconds - rowScore));
+                if (withPreviousRanks) writeVarint(out, row.getPreviousRank() != null ? row.getPreviousRank() : 0);
+                userId = row.getUserId();
+                score = rowScore;
+                rank = rowRank;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode leaderboard archive", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Decode a payload back into rows (period fields left empty; callers fill them in). */
+    public static List<LeaderboardRow> decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(payload)))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) throw new IllegalStateException("Unsupported leaderboard archive version " + version);
+            boolean withPreviousRanks = (in.readUnsignedByte() & HAS_PREVIOUS_RANKS) != 0;
+            int count = (int) readVarint(in);
+            List<LeaderboardRow> rows = new ArrayList<>(count);
+            long userId = 0, score = 0, rank = 0;
+            for (int i = 0; i < count; i++) {
+                userId += unzigzag(readVarint(in));
+                score += unzigzag(readVarint(in));
+                rank += unzigzag(readVarint(in));
+                long seconds = score + unzigzag(readVarint(in));
+                Integer previousRank = null;
+                if (withPreviousRanks) {
+                    long previous = readVarint(in);
+                    if (previous > 0) previousRank = (int) previous;
+                }
+                rows.add(LeaderboardRow.builder()
+                        .userId(userId)
+                        .score(score)
+                        .totalSeconds(seconds)
+                        .rank((int) rank)
+                        .previousRank(previousRank)
+                        .trend(withPreviousRanks ? FrozenBoard.trend((int) rank, previousRank) : null)
+                        .build());
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt leaderboard archive", e);
+        }
+    }
+
+    /** True when the payload carried previous ranks (every metric except streak). */
+    public static boolean hasPreviousRanks(byte[] payload) {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(payload))) {
+            in.read();
+            return (in.read() & HAS_PREVIOUS_RANKS) != 0;
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt leaderboard archive", e);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new EOFException("Truncated varint");
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Varint too long");
+    }
+}
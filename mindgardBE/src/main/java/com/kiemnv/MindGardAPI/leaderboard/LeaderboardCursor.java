@@ -0,0 +1,29 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for leaderboard pages: the (score, userId) of the last row served.
+ */
+public final class LeaderboardCursor {
+
+    private LeaderboardCursor() {
+    }
+
+    public static String encode(RankedScore last) {
+        String raw = last.getScore() + ":" + last.getUserId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Returns {score, userId}; throws IllegalArgumentException on a malformed cursor. */
+    public static long[] decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            return new long[]{Long.parseLong(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1))};
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid leaderboard cursor");
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+/**
+ * What a leaderboard ranks by. Focus keeps the historical unprefixed period keys
+ * ("weekly:2026-03-02"); other metrics prefix them ("xp:weekly:2026-03-02").
+ */
+public enum LeaderboardMetric {
+    /** Focus seconds in the period */
+    FOCUS("focus", 60),
+    /** FINISHED pomodoros in the period */
+    POMODOROS("pomodoros", 1),
+    /** Consecutive active days ending at the period's last day (or today) */
+    STREAK("streak", 1),
+    /** XP earned in the period (10 XP per focus minute, as in UserStatsService) */
+    XP("xp", 1);
+
+    private final String id;
+    private final long minScore;
+
+    LeaderboardMetric(String id, long minScore) {
+        this.id = id;
+        this.minScore = minScore;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /** Scores below this do not qualify for the board. */
+    public long getMinScore() {
+        return minScore;
+    }
+
+    /** Metric-qualified key for a plain period key. */
+    public String qualify(String periodKey) {
+        return this == FOCUS ? periodKey : id + ":" + periodKey;
+    }
+
+    /** Parse a request parameter; unknown or missing values fall back to focus. */
+    public static LeaderboardMetric from(String value) {
+        if (value != null) {
+            for (LeaderboardMetric metric : values()) {
+                if (metric.id.equalsIgnoreCase(value.trim())) return metric;
+            }
+        }
+        return FOCUS;
+    }
+
+    /** Metric encoded in a (possibly qualified) period key. */
+    public static LeaderboardMetric ofPeriodKey(String periodKey) {
+        for (LeaderboardMetric metric : values()) {
+            if (metric != FOCUS && periodKey.startsWith(metric.id + ":")) return metric;
+        }
+        return FOCUS;
+    }
+}
@@ -0,0 +1,80 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Regional leaderboards. Each region has one reference zone that defines its day boundaries,
+ * and its own period keys ("europe/daily:2026-03-04"). A user's region comes from the
+ * timezone in their settings and is stamped on their rollup rows at write time.
+ */
+public enum LeaderboardRegion {
+    ASIA("asia", "Asia/Ho_Chi_Minh"),
+    EUROPE("europe", "Europe/Paris"),
+    AMERICAS("americas", "America/New_York");
+
+    /** Region of users whose timezone is unknown (the app's home zone). */
+    public static final LeaderboardRegion DEFAULT = ASIA;
+
+    private static final int ASIA_MIN_OFFSET_SECONDS = 4 * 3600;
+    private static final int EUROPE_MIN_OFFSET_SECONDS = -1 * 3600; // Azores, Cape Verde
+
+    private final String id;
+    private final ZoneId zone;
+
+    LeaderboardRegion(String id, String zone) {
+        this.id = id;
+        this.zone = ZoneId.of(zone);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public LocalDate today() {
+        return LocalDate.now(zone);
+    }
+
+    /** Region-qualified period key. */
+    public String qualify(String periodKey) {
+        return id + "/" + periodKey;
+    }
+
+    /** Parse a request parameter; null for missing or unknown values (the global board). */
+    public static LeaderboardRegion from(String value) {
+        if (value == null || value.isBlank()) return null;
+        for (LeaderboardRegion region : values()) {
+            if (region.id.equalsIgnoreCase(value.trim())) return region;
+        }
+        return null;
+    }
+
+    /**
+     * Region of an IANA timezone, by its standard (non-DST) UTC offset, so a zone never changes region
+     * twice a year. Settings default to "UTC" for users
+     * who never chose a zone, so "UTC" and invalid zones fall back to {@link #DEFAULT}.
+     */
+    public static LeaderboardRegion ofTimezone(String timezone) {
+        if (timezone == null || timezone.isBlank() || "UTC".equalsIgnoreCase(timezone.trim())) return DEFAULT;
+        try {
+            int offset = ZoneId.of(timezone.trim()).getRules().getStandardOffset(Instant.now()).getTotalSeconds();
+            if (offset >= ASIA_MIN_OFFSET_SECONDS) return ASIA;
+            if (offset >= EUROPE_MIN_OFFSET_SECONDS) return EUROPE;
+            return AMERICAS;
+        } catch (DateTimeException e) {
+            return DEFAULT;
+        }
+    }
+
+    /** Region encoded in a plain (not metric-prefixed) period key, or null for a global key. */
+    public static LeaderboardRegion ofPeriodKey(String periodKey) {
+        int slash = periodKey.indexOf('/');
+        return slash > 0 ? from(periodKey.substring(0, slash)) : null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Objects;
+
+/**
+ * Column-level view of a leaderboard_entries row, used for diffing and bulk upserts
+ * without loading LeaderboardEntry/User entities.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardRow {
+    private Long userId;
+    private String period;
+    private String periodKey;
+    private String metric;
+    private Long score;
+    private Long totalSeconds;
+    private Integer rank;
+    private Integer previousRank;
+    private String trend;
+
+    /** True when the stored row already holds the same scores, rank and trend. */
+    public boolean sameAs(LeaderboardRow other) {
+        return other != null
+                && Objects.equals(score, other.score)
+                && Objects.equals(totalSeconds, other.totalSeconds)
+                && Objects.equals(rank, other.rank)
+                && Objects.equals(previousRank, other.previousRank)
+                && Objects.equals(trend, other.trend);
+    }
+}
@@ -0,0 +1,23 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/** One configured leaderboard season: an inclusive day range with its own standing board. */
+@Data
+public class LeaderboardSeason {
+    private String id;
+    private String name;
+    private LocalDate start;
+    private LocalDate end;
+
+    public boolean contains(LocalDate day) {
+        return day != null && !day.isBefore(start) && !day.isAfter(end);
+    }
+
+    /** Period name of the season's board, e.g. "season:2026-autumn". */
+    public String period() {
+        return "season:" + id;
+    }
+}
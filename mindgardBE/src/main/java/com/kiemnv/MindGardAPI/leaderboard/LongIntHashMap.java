@@ -0,0 +1,119 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Open-addressing (linear probing) map from long keys to int values, without boxing.
+ * Used for userId -> rank tables of closed periods: about 12 bytes per slot at half load,
+ * against ~80 bytes per entry for a HashMap&lt;Long, Integer&gt;.
+ * Not thread-safe for writes; frozen boards fill it once and only read it afterwards.
+ */
+public class LongIntHashMap {
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(long key, int value);
+    }
+
+    private static final long FREE = 0L;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+    private boolean hasFreeKey;
+    private int freeKeyValue;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public void put(long key, int value) {
+        if (key == FREE) {
+            if (!hasFreeKey) size++;
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return;
+        }
+        int slot = slotOf(key);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) grow();
+    }
+
+    /** Value for the key, or {@code missing} when absent. */
+    public int get(long key, int missing) {
+        if (key == FREE) return hasFreeKey ? freeKeyValue : missing;
+        int slot = slotOf(key);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+        return missing;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == FREE) return hasFreeKey;
+        int slot = slotOf(key);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(Visitor visitor) {
+        if (hasFreeKey) visitor.visit(FREE, freeKeyValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) visitor.visit(keys[i], values[i]);
+        }
+    }
+
+    private int slotOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        mask = keys.length - 1;
+        size = hasFreeKey ? 1 : 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LongIntHashMap{size=" + size + ", capacity=" + keys.length + "}";
+    }
+
+    /** Ranks (1-based) of a userId -> score table, ordered like RankIndex: score desc, userId asc. */
+    public static LongIntHashMap ranksOf(Map<Long, Long> scores) {
+        long[][] rows = new long[scores.size()][];
+        int i = 0;
+        for (Map.Entry<Long, Long> e : scores.entrySet()) rows[i++] = new long[]{e.getKey(), e.getValue()};
+        Arrays.sort(rows, (a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[0], b[0]));
+        LongIntHashMap ranks = new LongIntHashMap(rows.length);
+        for (int r = 0; r < rows.length; r++) ranks.put(rows[r][0], r + 1);
+        return ranks;
+    }
+}
@@ -0,0 +1,108 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Computes every metric for several periods in one pass over user_daily_focus rows
+ * ordered by (user_id, day desc), keeping only one user's running totals at a time.
+ */
+public class MetricScoreAggregator {
+
+    /** Streaks longer than this are reported as this many days. */
+    public static final int STREAK_LOOKBACK_DAYS = 90;
+
+    private static final long XP_PER_MINUTE = 10;
+
+    private final LocalDate asOf;
+    private final Map<String, LocalDate[]> ranges;
+    private final Map<LeaderboardMetric, Map<String, Map<Long, Long>>> scores = new EnumMap<>(LeaderboardMetric.class);
+
+    private Long userId;
+    private final Map<String, long[]> sums = new HashMap<>(); // period -> {seconds, finished, xp}
+    private int streak;
+    private LocalDate expectedDay;
+
+    /**
+     * @param asOf   day the streak must end on (usually today)
+     * @param ranges period name -> inclusive {startDay, endDay}
+     */
+    public MetricScoreAggregator(LocalDate asOf, Map<String, LocalDate[]> ranges) {
+        this.asOf = asOf;
+        this.ranges = new LinkedHashMap<>(ranges);
+        for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+            Map<String, Map<Long, Long>> byPeriod = new HashMap<>();
+            for (String period : ranges.keySet()) byPeriod.put(period, new HashMap<>());
+            scores.put(metric, byPeriod);
+        }
+    }
+
+    /** First day the rollup read must include to cover every range and the streak lookback. */
+    public LocalDate windowStart() {
+        LocalDate start = asOf.minusDays(STREAK_LOOKBACK_DAYS - 1);
+        for (LocalDate[] range : ranges.values()) {
+            if (range[0].isBefore(start)) start = range[0];
+        }
+        return start;
+    }
+
+    /** Last day the rollup read must include. */
+    public LocalDate windowEnd() {
+        LocalDate end = asOf;
+        for (LocalDate[] range : ranges.values()) {
+            if (range[1].isAfter(end)) end = range[1];
+        }
+        return end;
+    }
+
+    /** Feed one rollup row. Rows must arrive grouped by user, newest day first. */
+    public void accept(long rowUserId, LocalDate day, long seconds, int finished) {
+        if (userId == null || userId != rowUserId) {
+            flush();
+            userId = rowUserId;
+            streak = 0;
+            expectedDay = asOf;
+        }
+        if (seconds > 0 && expectedDay != null) {
+            if (day.equals(expectedDay) && streak < STREAK_LOOKBACK_DAYS) {
+                streak++;
+                expectedDay = day.minusDays(1);
+            } else if (day.isBefore(expectedDay)) {
+                expectedDay = null; // gap: the streak is over
+            }
+        }
+        for (Map.Entry<String, LocalDate[]> range : ranges.entrySet()) {
+            if (day.isBefore(range.getValue()[0]) || day.isAfter(range.getValue()[1])) continue;
+            long[] sum = sums.computeIfAbsent(range.getKey(), k -> new long[3]);
+            sum[0] += seconds;
+            sum[1] += finished;
+            sum[2] += seconds / 60 * XP_PER_MINUTE;
+        }
+    }
+
+    /** userId -> score for one metric and period, restricted to qualifying scores. */
+    public Map<Long, Long> scores(LeaderboardMetric metric, String period) {
+        flush();
+        return scores.get(metric).getOrDefault(period, Map.of());
+    }
+
+    private void flush() {
+        if (userId == null) return;
+        for (String period : ranges.keySet()) {
+            long[] sum = sums.getOrDefault(period, new long[3]);
+            put(LeaderboardMetric.FOCUS, period, sum[0]);
+            put(LeaderboardMetric.POMODOROS, period, sum[1]);
+            put(LeaderboardMetric.XP, period, sum[2]);
+            put(LeaderboardMetric.STREAK, period, streak);
+        }
+        sums.clear();
+        userId = null;
+    }
+
+    private void put(LeaderboardMetric metric, String period, long score) {
+        if (score >= metric.getMinScore()) scores.get(metric).get(period).put(userId, score);
+    }
+}
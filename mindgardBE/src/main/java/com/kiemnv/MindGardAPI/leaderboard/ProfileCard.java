@@ -0,0 +1,25 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+import com.kiemnv.MindGardAPI.entity.User;
+import lombok.Value;
+
+/** The few User columns a leaderboard row shows, detached from the entity. */
+@Value
+public class ProfileCard {
+    Long userId;
+    String username;
+    String displayName;
+    String avatarUrl;
+    String bio;
+    Integer level;
+
+    public static ProfileCard of(User user) {
+        String displayName = user.getFirstName() != null && user.getLastName() != null
+                ? (user.getFirstName() + " " + user.getLastName()).trim()
+                : (user.getFirstName() != null ? user.getFirstName()
+                : (user.getLastName() != null ? user.getLastName()
+                : user.getUsername()));
+        return new ProfileCard(user.getId(), user.getUsername(), displayName, user.getAvatarUrl(),
+                user.getBio(), user.getLevel() != null ? user.getLevel() : 1);
+    }
+}
@@ -0,0 +1,290 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory order-statistic index for one leaderboard period.
+ * Backed by a treap ordered by (score desc, userId asc) with subtree sizes,
+ * so updates, rank lookups and rank-range reads are all O(log n).
+ * A {@link ScoreHistogram} is kept in step with every update for cheap "top X%" placement.
+ * Thread-safe: reads share a read lock, updates take the write lock.
+ */
+public class RankIndex implements RankView {
+
+    private static final class Node {
+        final long userId;
+        final long score;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(long userId, long score, int priority) {
+            this.userId = userId;
+            this.score = score;
+            this.priority = priority;
+        }
+    }
+
+    private final Map<Long, Long> scores = new HashMap<>();
+    private final ScoreHistogram histogram = new ScoreHistogram();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+
+    /** Build an index from userId -> score pairs. */
+    public static RankIndex of(Map<Long, Long> userScores) {
+        RankIndex index = new RankIndex();
+        userScores.forEach(index::put);
+        return index;
+    }
+
+    /** Insert or move a user to a new score. Returns false if the user already had this score. */
+    public boolean put(long userId, long score) {
+        lock.writeLock().lock();
+        try {
+            Long previous = scores.put(userId, score);
+            if (previous != null) {
+                if (previous == score) return false;
+                root = erase(root, previous, userId);
+                histogram.remove(previous);
+            }
+            histogram.add(score);
+            root = insert(root, new Node(userId, score, ThreadLocalRandom.current().nextInt()));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Remove a user. Returns true if the user was present. */
+    public boolean remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            Long previous = scores.remove(userId);
+            if (previous == null) return false;
+            root = erase(root, previous, userId);
+            histogram.remove(previous);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** 1-based rank of a user, or null if the user is not ranked. */
+    @Override
+    public Integer rankOf(long userId) {
+        lock.readLock().lock();
+        try {
+            Long score = scores.get(userId);
+            if (score == null) return null;
+            return countBefore(score, userId) + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Score of a user, or null if the user is not ranked. */
+    @Override
+    public Long scoreOf(long userId) {
+        lock.readLock().lock();
+        try {
+            return scores.get(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Approximate "top X%" placement for a score, from the histogram sketch. */
+    @Override
+    public Double topPercent(long score) {
+        lock.readLock().lock();
+        try {
+            return histogram.topPercent(score);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Entries by rank, starting at the 0-based offset. */
+    @Override
+    public List<RankedScore> range(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int total = size(root);
+            if (offset < 0) offset = 0;
+            if (limit <= 0 || offset >= total) return Collections.emptyList();
+            int to = Math.min(total, offset + limit);
+            List<RankedScore> out = new ArrayList<>(to - offset);
+            collect(root, 0, offset, to, out);
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keyset read: up to limit entries ordered strictly after (score, userId).
+     * The anchor does not need to be present, so cursors stay valid while scores move.
+     */
+    @Override
+    public List<RankedScore> after(long score, long userId, int limit) {
+        lock.readLock().lock();
+        try {
+            int from = countBefore(score, userId);
+            Long anchorScore = scores.get(userId);
+            if (anchorScore != null && anchorScore == score) from++;
+            int total = size(root);
+            if (limit <= 0 || from >= total) return Collections.emptyList();
+            int to = Math.min(total, from + limit);
+            List<RankedScore> out = new ArrayList<>(to - from);
+            collect(root, 0, from, to, out);
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranking restricted to a subset of users (friends, a room, a group), re-ranked 1..k.
+     * O(k log k) for k members, independent of the period's population.
+     */
+    @Override
+    public List<RankedScore> subset(Collection<Long> userIds) {
+        List<long[]> members = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Long userId : userIds) {
+                Long score = userId != null ? scores.get(userId) : null;
+                if (score != null) members.add(new long[]{userId, score});
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        members.sort((a, b) -> compare(a[1], a[0], b[1], b[0]));
+        List<RankedScore> out = new ArrayList<>(members.size());
+        for (int i = 0; i < members.size(); i++) {
+            out.add(new RankedScore(members.get(i)[0], members.get(i)[1], i + 1));
+        }
+        return out;
+    }
+
+    // --- Treap internals ---
+
+    private static int compare(long scoreA, long userIdA, long scoreB, long userIdB) {
+        if (scoreA != scoreB) return scoreA > scoreB ? -1 : 1;
+        return Long.compare(userIdA, userIdB);
+    }
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static void update(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+
+    private static Node insert(Node n, Node added) {
+        if (n == null) return added;
+        if (compare(added.score, added.userId, n.score, n.userId) < 0) {
+            n.left = insert(n.left, added);
+            update(n);
+            if (n.left.priority > n.priority) n = rotateRight(n);
+        } else {
+            n.right = insert(n.right, added);
+            update(n);
+            if (n.right.priority > n.priority) n = rotateLeft(n);
+        }
+        return n;
+    }
+
+    private static Node erase(Node n, long score, long userId) {
+        if (n == null) return null;
+        int c = compare(score, userId, n.score, n.userId);
+        if (c < 0) {
+            n.left = erase(n.left, score, userId);
+        } else if (c > 0) {
+            n.right = erase(n.right, score, userId);
+        } else {
+            return merge(n.left, n.right);
+        }
+        update(n);
+        return n;
+    }
+
+    /** Merge two treaps where every key in a sorts before every key in b. */
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private int countBefore(long score, long userId) {
+        int before = 0;
+        Node n = root;
+        while (n != null) {
+            int c = compare(score, userId, n.score, n.userId);
+            if (c < 0) {
+                n = n.left;
+            } else if (c > 0) {
+                before += size(n.left) + 1;
+                n = n.right;
+            } else {
+                return before + size(n.left);
+            }
+        }
+        return before;
+    }
+
+    /** In-order walk of ranks [from, to), skipping subtrees outside the window. */
+    private static void collect(Node n, int base, int from, int to, List<RankedScore> out) {
+        if (n == null || base >= to || base + n.size <= from) return;
+        collect(n.left, base, from, to, out);
+        int position = base + size(n.left);
+        if (position >= from && position < to) {
+            out.add(new RankedScore(n.userId, n.score, position + 1));
+        }
+        collect(n.right, position + 1, from, to, out);
+    }
+}
@@ -0,0 +1,31 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read side of a ranked period population, ordered by (score desc, userId asc).
+ * Live periods are served by a {@link RankIndex}, closed periods by a {@link FrozenBoard}.
+ */
+public interface RankView {
+
+    /** 1-based rank of a user, or null if the user is not ranked. */
+    Integer rankOf(long userId);
+
+    /** Score of a user, or null if the user is not ranked. */
+    Long scoreOf(long userId);
+
+    /** "Top X%" placement for a score, or null when the population is empty. */
+    Double topPercent(long score);
+
+    int size();
+
+    /** Entries by rank, starting at the 0-based offset. */
+    List<RankedScore> range(int offset, int limit);
+
+    /** Keyset read: up to limit entries ordered strictly after (score, userId). */
+    List<RankedScore> after(long score, long userId, int limit);
+
+    /** Ranking restricted to a subset of users, re-ranked 1..k. */
+    List<RankedScore> subset(Collection<Long> userIds);
+}
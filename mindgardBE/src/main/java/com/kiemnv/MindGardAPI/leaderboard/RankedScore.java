@@ -0,0 +1,11 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+import lombok.Value;
+
+/** One row read out of a {@link RankIndex}. */
+@Value
+public class RankedScore {
+    long userId;
+    long score;
+    int rank;
+}
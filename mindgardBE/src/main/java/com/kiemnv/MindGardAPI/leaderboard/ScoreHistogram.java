@@ -0,0 +1,64 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+/**
+ * Fixed-bucket quantile sketch over period scores (focus seconds).
+ * Buckets grow geometrically (5% wide) from 1 minute up to 31 days, so the sketch
+ * is a constant ~1.8 KB per period, supports removals (unlike t-digest) and
+ * answers "top X%" in a bounded number of steps regardless of participant count.
+ */
+public class ScoreHistogram {
+
+    private static final double MIN_SCORE = 60;
+    private static final double GROWTH = 1.05;
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+    private static final int BUCKETS = 2 + (int) (Math.log(31.0 * 24 * 3600 / MIN_SCORE) / LOG_GROWTH);
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+
+    public void add(long score) {
+        counts[bucketOf(score)]++;
+        total++;
+    }
+
+    public void remove(long score) {
+        int bucket = bucketOf(score);
+        if (counts[bucket] == 0) return;
+        counts[bucket]--;
+        total--;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Share of participants scoring at least this much, as a percentage in (0, 100],
+     * rounded to one decimal. Scores inside a bucket are assumed evenly spread.
+     * Returns null when the sketch is empty.
+     */
+    public Double topPercent(long score) {
+        if (total == 0) return null;
+        int bucket = bucketOf(score);
+        long above = 0;
+        for (int i = BUCKETS - 1; i > bucket; i--) above += counts[i];
+
+        double lower = lowerBound(bucket);
+        double upper = lowerBound(bucket + 1);
+        double fractionAbove = upper > lower ? Math.max(0, Math.min(1, (upper - score) / (upper - lower))) : 0;
+        double atOrAbove = above + Math.max(1, counts[bucket] * fractionAbove);
+
+        double percent = Math.min(100.0, 100.0 * atOrAbove / total);
+        return Math.max(0.1, Math.round(percent * 10) / 10.0);
+    }
+
+    private static int bucketOf(long score) {
+        if (score <= MIN_SCORE) return 0;
+        int bucket = 1 + (int) (Math.log(score / MIN_SCORE) / LOG_GROWTH);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    private static double lowerBound(int bucket) {
+        return bucket == 0 ? 0 : MIN_SCORE * Math.pow(GROWTH, bucket - 1);
+    }
+}
@@ -0,0 +1,33 @@
+package com.kiemnv.MindGardAPI.pomodoro;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for focus-session pages: the (startAt, id) of the last session served.
+ */
+public final class FocusSessionCursor {
+
+    private FocusSessionCursor() {
+    }
+
+    public static String encode(LocalDateTime startAt, long id) {
+        String raw = startAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Returns the anchor's startAt and id; throws IllegalArgumentException on a malformed cursor. */
+    public static Anchor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new Anchor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid focus session cursor");
+        }
+    }
+
+    public record Anchor(LocalDateTime startAt, long id) {
+    }
+}
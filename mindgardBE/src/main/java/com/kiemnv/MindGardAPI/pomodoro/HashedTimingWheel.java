@@ -0,0 +1,96 @@
+package com.kiemnv.MindGardAPI.pomodoro;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel keyed by a long id (Varghese and Lauck, scheme 6).
+ * Deadlines are rounded up to whole ticks and hashed into a fixed ring of slots;
+ * a deadline further out than one revolution simply stays in its slot until its tick comes round.
+ * Schedule, reschedule and cancel are O(1); advancing visits only the slots of the elapsed ticks.
+ * Not thread-safe: callers serialize access.
+ */
+public class HashedTimingWheel<T> {
+
+    private static final class Timeout<T> {
+        final long id;
+        final long deadlineTick;
+        final T payload;
+
+        Timeout(long id, long deadlineTick, T payload) {
+            this.id = id;
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+    }
+
+    private final long tickMs;
+    private final int mask;
+    private final Map<Long, Timeout<T>>[] slots;
+    private final Map<Long, Timeout<T>> timeouts = new HashMap<>();
+    private long currentTick;
+
+    /** @param slots ring size, rounded up to a power of two */
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMs, int slots, long nowMs) {
+        int size = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+        this.tickMs = tickMs;
+        this.mask = size - 1;
+        this.slots = new Map[size];
+        this.currentTick = nowMs / tickMs;
+    }
+
+    /** Schedule (or move) the timeout for an id. A deadline already due fires on the next advance. */
+    public void schedule(long id, long deadlineMs, T payload) {
+        cancel(id);
+        long tick = Math.max(currentTick + 1, (deadlineMs + tickMs - 1) / tickMs);
+        Timeout<T> timeout = new Timeout<>(id, tick, payload);
+        timeouts.put(id, timeout);
+        int slot = (int) (tick & mask);
+        if (slots[slot] == null) slots[slot] = new HashMap<>();
+        slots[slot].put(id, timeout);
+    }
+
+    /** Remove the timeout for an id; returns its payload, or null if none was scheduled. */
+    public T cancel(long id) {
+        Timeout<T> timeout = timeouts.remove(id);
+        if (timeout == null) return null;
+        slots[(int) (timeout.deadlineTick & mask)].remove(id);
+        return timeout.payload;
+    }
+
+    public T get(long id) {
+        Timeout<T> timeout = timeouts.get(id);
+        return timeout != null ? timeout.payload : null;
+    }
+
+    public int size() {
+        return timeouts.size();
+    }
+
+    /** Move the wheel to nowMs and remove and return every payload whose deadline has passed. */
+    public List<T> advance(long nowMs) {
+        long target = nowMs / tickMs;
+        if (target <= currentTick) return List.of();
+        List<T> expired = new ArrayList<>();
+        // After a stall longer than one revolution, one pass over the ring covers every slot
+        long from = Math.max(currentTick + 1, target - mask);
+        for (long tick = from; tick <= target; tick++) {
+            Map<Long, Timeout<T>> slot = slots[(int) (tick & mask)];
+            if (slot == null || slot.isEmpty()) continue;
+            Iterator<Timeout<T>> it = slot.values().iterator();
+            while (it.hasNext()) {
+                Timeout<T> timeout = it.next();
+                if (timeout.deadlineTick > target) continue; // a later revolution
+                it.remove();
+                timeouts.remove(timeout.id);
+                expired.add(timeout.payload);
+            }
+        }
+        currentTick = target;
+        return expired;
+    }
+}
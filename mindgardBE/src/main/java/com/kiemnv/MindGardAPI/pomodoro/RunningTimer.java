@@ -0,0 +1,27 @@
+package com.kiemnv.MindGardAPI.pomodoro;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * A RUNNING session as tracked by RunningSessionTimer. Times are server-local like pomodoro_sessions.startAt.
+ * A session with no heartbeat yet is judged by its plan alone (or abandoned after a long grace without one).
+ */
+public record RunningTimer(long sessionId, long userId, LocalDateTime startAt, Long plannedSeconds,
+                           LocalDateTime lastHeartbeatAt) {
+
+    public RunningTimer withHeartbeat(LocalDateTime at) {
+        return new RunningTimer(sessionId, userId, startAt, plannedSeconds, at);
+    }
+
+    public LocalDateTime plannedEndAt() {
+        return plannedSeconds != null ? startAt.plusSeconds(plannedSeconds) : null;
+    }
+
+    /** Remaining planned seconds at the given time, or null for an open-ended session. */
+    public Long remainingSeconds(LocalDateTime now) {
+        LocalDateTime plannedEnd = plannedEndAt();
+        if (plannedEnd == null) return null;
+        return Math.max(0L, Duration.between(now, plannedEnd).getSeconds());
+    }
+}
@@ -0,0 +1,17 @@
+package com.kiemnv.MindGardAPI.repository;
+
+import com.kiemnv.MindGardAPI.entity.DistractionEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DistractionEventRepository extends JpaRepository<DistractionEvent, Long> {
+
+    /** type, count for one session */
+    @Query("SELECT d.type, COUNT(d) FROM DistractionEvent d WHERE d.sessionId = :sessionId GROUP BY d.type")
+    List<Object[]> countByTypeForSession(@Param("sessionId") Long sessionId);
+}
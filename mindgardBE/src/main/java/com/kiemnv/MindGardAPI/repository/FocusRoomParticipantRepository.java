@@ -0,0 +1,17 @@
+package com.kiemnv.MindGardAPI.repository;
+
+import com.kiemnv.MindGardAPI.entity.FocusRoomParticipant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FocusRoomParticipantRepository extends JpaRepository<FocusRoomParticipant, Long> {
+
+    /** Ids of everyone who has joined the room, including those who left (projection, no entities) */
+    @Query("SELECT DISTINCT p.user.id FROM FocusRoomParticipant p WHERE p.room.id = :roomId")
+    List<Long> findUserIdsByRoomId(@Param("roomId") Long roomId);
+}
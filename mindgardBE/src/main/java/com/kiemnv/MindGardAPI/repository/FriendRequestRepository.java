@@ -53,5 +53,14 @@ public interface FriendRequestRepository extends JpaRepository<FriendRequest, Lo
             ORDER BY fr.respondedAt DESC, fr.createdAt DESC
             """)
     List<FriendRequest> findAcceptedForUser(@Param("userId") Long userId);
+
+    /** Ids of accepted friends only (no User loading), for leaderboard scoping */
+    @Query("""
+            SELECT CASE WHEN fr.requester.id = :userId THEN fr.recipient.id ELSE fr.requester.id END
+            FROM FriendRequest fr
+            WHERE fr.status = 'ACCEPTED'
+              AND (fr.requester.id = :userId OR fr.recipient.id = :userId)
+            """)
+    List<Long> findFriendIds(@Param("userId") Long userId);
 }
 
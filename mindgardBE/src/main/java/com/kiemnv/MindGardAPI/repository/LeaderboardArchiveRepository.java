@@ -0,0 +1,9 @@
+package com.kiemnv.MindGardAPI.repository;
+
+import com.kiemnv.MindGardAPI.entity.LeaderboardArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LeaderboardArchiveRepository extends JpaRepository<LeaderboardArchive, String> {
+}
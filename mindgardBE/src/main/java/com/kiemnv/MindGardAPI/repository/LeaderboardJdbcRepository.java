@@ -0,0 +1,61 @@
+package com.kiemnv.MindGardAPI.repository;
+
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Bulk writes for leaderboard_entries that JPA cannot express
+ * (IDENTITY ids disable Hibernate batching, and there is no upsert).
+ */
+@Repository
+@RequiredArgsConstructor
+public class LeaderboardJdbcRepository {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO leaderboard_entries
+                (user_id, period, period_key, metric, score, total_seconds, total_minutes,
+                 current_rank, previous_rank, trend, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (user_id, period_key) DO UPDATE SET
+                metric        = EXCLUDED.metric,
+                score         = EXCLUDED.score,
+                total_seconds = EXCLUDED.total_seconds,
+                total_minutes = EXCLUDED.total_minutes,
+                current_rank  = EXCLUDED.current_rank,
+                previous_rank = EXCLUDED.previous_rank,
+                trend         = EXCLUDED.trend,
+                updated_at    = EXCLUDED.updated_at
+            """;
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Insert or update rows keyed by (user_id, period_key) in JDBC batches. */
+    public int upsert(List<LeaderboardRow> rows) {
+        if (rows.isEmpty()) return 0;
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, BATCH_SIZE, (ps, row) -> {
+            long seconds = row.getTotalSeconds() != null ? row.getTotalSeconds() : 0L;
+            ps.setLong(1, row.getUserId());
+            ps.setString(2, row.getPeriod());
+            ps.setString(3, row.getPeriodKey());
+            ps.setString(4, row.getMetric() != null ? row.getMetric() : "focus");
+            ps.setObject(5, row.getScore() != null ? row.getScore() : seconds, Types.BIGINT);
+            ps.setLong(6, seconds);
+            ps.setLong(7, seconds / 60);
+            ps.setObject(8, row.getRank(), Types.INTEGER);
+            ps.setObject(9, row.getPreviousRank(), Types.INTEGER);
+            ps.setString(10, row.getTrend());
+            ps.setObject(11, now);
+            ps.setObject(12, now);
+        });
+        return rows.size();
+    }
+}
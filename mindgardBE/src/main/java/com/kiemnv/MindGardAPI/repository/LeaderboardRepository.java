@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,7 +26,20 @@ public interface LeaderboardRepository extends JpaRepository<LeaderboardEntry, L
     @Query("SELECT e FROM LeaderboardEntry e WHERE e.periodKey = :periodKey AND e.user.id IN :userIds ORDER BY e.rank ASC")
     List<LeaderboardEntry> findByPeriodKeyAndUserIdIn(@Param("periodKey") String periodKey, @Param("userIds") List<Long> userIds);
 
-    /** Delete all entries for a specific period key (before recomputing) */
+    /** Column projection of a period's rows: userId, totalSeconds, rank, previousRank, trend, score (no entity loading) */
+    @Query("SELECT e.user.id, e.totalSeconds, e.rank, e.previousRank, e.trend, e.score FROM LeaderboardEntry e WHERE e.periodKey = :periodKey")
+    List<Object[]> findRowsByPeriodKey(@Param("periodKey") String periodKey);
+
+    /** Delete the given users' entries for a period key (entries that dropped off the board) */
+    @Modifying
+    @Query("DELETE FROM LeaderboardEntry e WHERE e.periodKey = :periodKey AND e.user.id IN :userIds")
+    int deleteByPeriodKeyAndUserIdIn(@Param("periodKey") String periodKey, @Param("userIds") Collection<Long> userIds);
+
+    /** Every period key that still has live rows (compaction candidates) */
+    @Query("SELECT DISTINCT e.periodKey FROM LeaderboardEntry e")
+    List<String> findDistinctPeriodKeys();
+
+    /** Delete all entries for a specific period key (after archiving it) */
     @Modifying
     @Query("DELETE FROM LeaderboardEntry e WHERE e.periodKey = :periodKey")
     void deleteByPeriodKey(@Param("periodKey") String periodKey);
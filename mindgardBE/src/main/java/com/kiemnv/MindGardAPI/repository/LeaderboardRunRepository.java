@@ -0,0 +1,22 @@
+package com.kiemnv.MindGardAPI.repository;
+
+import com.kiemnv.MindGardAPI.entity.LeaderboardRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface LeaderboardRunRepository extends JpaRepository<LeaderboardRun, Long> {
+
+    /**
+     * Try to take a transaction-scoped Postgres advisory lock.
+     * Returns immediately; the lock is released on commit or rollback.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryXactLock(@Param("key") long key);
+
+    Optional<LeaderboardRun> findTopByOrderByIdDesc();
+}
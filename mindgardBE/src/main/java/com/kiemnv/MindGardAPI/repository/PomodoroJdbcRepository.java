@@ -0,0 +1,170 @@
+package com.kiemnv.MindGardAPI.repository;
+
+import com.kiemnv.MindGardAPI.entity.DistractionEvent;
+import com.kiemnv.MindGardAPI.entity.PomodoroSession;
+import com.kiemnv.MindGardAPI.entity.SessionOutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk writes for pomodoro_sessions, their outbox and distraction events (IDENTITY ids disable Hibernate batching).
+ * Joins the caller's transaction like any JPA repository.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PomodoroJdbcRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO pomodoro_sessions
+                (user_id, task, start_at, end_at, duration_seconds, interruptions, distraction_count,
+                 project_id, status, session_uuid, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_OUTBOX_SQL = """
+            INSERT INTO session_outbox
+                (user_id, session_id, ended_at, duration_seconds, finished, created_at, attempts)
+            VALUES (?, ?, ?, ?, ?, ?, 0)
+            """;
+
+    /**
+     * Close a session only if it is still RUNNING, folding its distraction_events into the counters. An abort for lapsed heartbeats also requires that no
+     * heartbeat arrived since the cutoff (another instance may have received it); a planned finish does not.
+     */
+    private static final String FINALIZE_RUNNING_SQL = """
+            UPDATE pomodoro_sessions
+               SET end_at = ?, duration_seconds = ?, status = ?,
+                   distraction_count = (SELECT COUNT(*) FROM distraction_events d
+                                         WHERE d.session_id = pomodoro_sessions.id AND d.type IN ('TAB_SWITCH', 'BLOCKED_SITE')),
+                   interruptions     = (SELECT COUNT(*) FROM distraction_events d
+                                         WHERE d.session_id = pomodoro_sessions.id AND d.type IN ('IDLE', 'INTERRUPTION'))
+             WHERE id = ? AND status = 'RUNNING'
+               AND (? OR last_heartbeat_at IS NULL OR last_heartbeat_at <= ?)
+            """;
+
+    /** Fold distraction_events into the counters of a session another instance already closed. */
+    private static final String RECOUNT_CLOSED_SQL = """
+            UPDATE pomodoro_sessions
+               SET distraction_count = (SELECT COUNT(*) FROM distraction_events d
+                                         WHERE d.session_id = pomodoro_sessions.id AND d.type IN ('TAB_SWITCH', 'BLOCKED_SITE')),
+                   interruptions     = (SELECT COUNT(*) FROM distraction_events d
+                                         WHERE d.session_id = pomodoro_sessions.id AND d.type IN ('IDLE', 'INTERRUPTION'))
+             WHERE id = ? AND status <> 'RUNNING'
+            """;
+
+    private static final String INSERT_DISTRACTION_SQL = """
+            INSERT INTO distraction_events (session_id, user_id, type, detail, occurred_at, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Insert sessions in JDBC batches and set their generated ids, in list order. */
+    public int insertAll(List<PomodoroSession> sessions) {
+        if (sessions.isEmpty()) return 0;
+        for (int from = 0; from < sessions.size(); from += BATCH_SIZE) {
+            List<PomodoroSession> chunk = sessions.subList(from, Math.min(sessions.size(), from + BATCH_SIZE));
+            jdbcTemplate.execute((Connection con) -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                    (PreparedStatement ps) -> {
+                        for (PomodoroSession s : chunk) {
+                            bindSession(ps, s);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                        try (ResultSet keys = ps.getGeneratedKeys()) {
+                            for (PomodoroSession s : chunk) {
+                                if (!keys.next()) throw new IllegalStateException("Missing generated id for a batch insert");
+                                s.setId(keys.getLong(1));
+                            }
+                        }
+                        return null;
+                    });
+        }
+        return sessions.size();
+    }
+
+    private static void bindSession(PreparedStatement ps, PomodoroSession s) throws SQLException {
+        ps.setLong(1, s.getUser().getId());
+        ps.setString(2, s.getTask());
+        ps.setObject(3, s.getStartAt());
+        ps.setObject(4, s.getEndAt());
+        ps.setObject(5, s.getDurationSeconds(), Types.BIGINT);
+        ps.setObject(6, s.getInterruptions(), Types.INTEGER);
+        ps.setObject(7, s.getDistractionCount(), Types.INTEGER);
+        ps.setObject(8, s.getProjectId(), Types.BIGINT);
+        ps.setString(9, s.getStatus().name());
+        ps.setString(10, s.getSessionUuid());
+        ps.setObject(11, s.getCreatedAt());
+    }
+
+    public int insertOutboxEvents(List<SessionOutboxEvent> events) {
+        if (events.isEmpty()) return 0;
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, events, BATCH_SIZE, (ps, e) -> {
+            ps.setLong(1, e.getUserId());
+            ps.setObject(2, e.getSessionId(), Types.BIGINT);
+            ps.setObject(3, e.getEndedAt());
+            ps.setLong(4, e.getDurationSeconds());
+            ps.setBoolean(5, e.getFinished());
+            ps.setObject(6, e.getCreatedAt());
+        });
+        return events.size();
+    }
+
+    public int insertDistractionEvents(List<DistractionEvent> events) {
+        if (events.isEmpty()) return 0;
+        jdbcTemplate.batchUpdate(INSERT_DISTRACTION_SQL, events, BATCH_SIZE, (ps, e) -> {
+            ps.setLong(1, e.getSessionId());
+            ps.setLong(2, e.getUserId());
+            ps.setString(3, e.getType().name());
+            ps.setString(4, e.getDetail());
+            ps.setObject(5, e.getOccurredAt());
+            ps.setObject(6, e.getCreatedAt());
+        });
+        return events.size();
+    }
+
+    /** Recount the distraction counters of the sessions that are no longer RUNNING; returns how many were. */
+    public int recountClosed(Collection<Long> sessionIds) {
+        if (sessionIds.isEmpty()) return 0;
+        int recounted = 0;
+        for (int[] batch : jdbcTemplate.batchUpdate(RECOUNT_CLOSED_SQL, List.copyOf(sessionIds), BATCH_SIZE,
+                (ps, id) -> ps.setLong(1, id))) {
+            for (int count : batch) recounted += Math.max(count, 0);
+        }
+        return recounted;
+    }
+
+    /**
+     * Finalize RUNNING sessions in one JDBC batch (sessions carry id, endAt, durationSeconds and status).
+     * Returns, per session, whether this call closed it.
+     */
+    public boolean[] finalizeRunning(List<PomodoroSession> sessions, LocalDateTime heartbeatCutoff) {
+        boolean[] closed = new boolean[sessions.size()];
+        if (sessions.isEmpty()) return closed;
+        int[][] counts = jdbcTemplate.batchUpdate(FINALIZE_RUNNING_SQL, sessions, BATCH_SIZE, (ps, s) -> {
+            ps.setObject(1, s.getEndAt());
+            ps.setLong(2, s.getDurationSeconds());
+            ps.setString(3, s.getStatus().name());
+            ps.setLong(4, s.getId());
+            ps.setBoolean(5, s.getStatus() == PomodoroSession.Status.FINISHED);
+            ps.setObject(6, heartbeatCutoff);
+        });
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) closed[i++] = count > 0;
+        }
+        return closed;
+    }
+}
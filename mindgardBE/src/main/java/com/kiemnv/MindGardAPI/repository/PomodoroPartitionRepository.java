@@ -0,0 +1,137 @@
+package com.kiemnv.MindGardAPI.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * DDL for the monthly range partitions of pomodoro_sessions (partitioned on end_at).
+ * Partitions are named pomodoro_sessions_pYYYYMM; sessions without end_at (RUNNING) and
+ * rows outside every month live in pomodoro_sessions_default.
+ * Joins the caller's transaction; all statements are PostgreSQL-specific.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PomodoroPartitionRepository {
+
+    public static final String TABLE = "pomodoro_sessions";
+    public static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final String PARTITION_PREFIX = TABLE + "_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(SUFFIX);
+    }
+
+    /** Month of a partition name, or null for the default partition and foreign tables. */
+    public static YearMonth monthOf(String partitionName) {
+        if (!partitionName.startsWith(PARTITION_PREFIX)) return null;
+        try {
+            return YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), SUFFIX);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    public boolean tryAdvisoryXactLock(long key) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, key));
+    }
+
+    public int serverVersion() {
+        Integer version = jdbcTemplate.queryForObject("SELECT current_setting('server_version_num')::int", Integer.class);
+        return version != null ? version : 0;
+    }
+
+    /** 'p' once partitioned, 'r' for the plain heap Hibernate creates, null if the table does not exist yet. */
+    public String relkind() {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", String.class, TABLE);
+        return kinds.isEmpty() ? null : kinds.get(0);
+    }
+
+    public List<String> findPartitionNames() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass(?)
+                ORDER BY c.relname
+                """, String.class, TABLE);
+    }
+
+    public LocalDateTime findMinEndAt() {
+        return jdbcTemplate.queryForObject("SELECT MIN(end_at) FROM " + TABLE, LocalDateTime.class);
+    }
+
+    /**
+     * Swap the plain heap for a table partitioned by month on end_at, copying every row, in the caller's transaction.
+     * Identity and unique constraints must include the partition key on a partitioned table, so id comes from a
+     * sequence with a plain index, and the (user_id, session_uuid) key becomes (user_id, session_uuid, end_at).
+     */
+    public void convertToPartitioned(List<YearMonth> months) {
+        jdbcTemplate.execute("LOCK TABLE " + TABLE + " IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + TABLE + "_heap");
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + " (LIKE " + TABLE + "_heap INCLUDING DEFAULTS) PARTITION BY RANGE (end_at)");
+        jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+        for (YearMonth month : months) {
+            jdbcTemplate.execute("CREATE TABLE " + partitionName(month) + " PARTITION OF " + TABLE + " " + bounds(month));
+        }
+        jdbcTemplate.execute("INSERT INTO " + TABLE + " SELECT * FROM " + TABLE + "_heap");
+        // Drops the heap's identity sequence, primary key, unique key, indexes and foreign key with it
+        jdbcTemplate.execute("DROP TABLE " + TABLE + "_heap");
+
+        jdbcTemplate.execute("CREATE SEQUENCE " + TABLE + "_id_seq OWNED BY " + TABLE + ".id");
+        jdbcTemplate.execute("SELECT setval('" + TABLE + "_id_seq', COALESCE((SELECT MAX(id) FROM " + TABLE + "), 0) + 1, false)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ALTER COLUMN id SET DEFAULT nextval('" + TABLE + "_id_seq')");
+        jdbcTemplate.execute("CREATE INDEX idx_pomodoro_sessions_id ON " + TABLE + " (id)");
+        jdbcTemplate.execute("CREATE INDEX idx_pomodoro_sessions_user_end ON " + TABLE + " (user_id, end_at)");
+        jdbcTemplate.execute("CREATE INDEX idx_pomodoro_sessions_user_status_start ON " + TABLE + " (user_id, status, start_at, id)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT uk_pomodoro_sessions_user_session_uuid"
+                + " UNIQUE (user_id, session_uuid, end_at)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT fk_pomodoro_sessions_user"
+                + " FOREIGN KEY (user_id) REFERENCES users (id)");
+    }
+
+    /**
+     * Create and attach a month partition. Rows of that month already in the default partition
+     * (e.g. far-future client timestamps) are moved first, otherwise the attach would be rejected.
+     */
+    public int createPartition(YearMonth month) {
+        String name = partitionName(month);
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + TABLE + " INCLUDING DEFAULTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                        + " WHERE end_at >= ? AND end_at < ? RETURNING *) INSERT INTO " + name + " SELECT * FROM moved",
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + name + " " + bounds(month));
+        return moved;
+    }
+
+    public void detachPartition(YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partitionName(month));
+    }
+
+    /** Stream a (detached) partition's rows as JSON text in id order, one fetch page at a time. */
+    public void streamRowsAsJson(YearMonth month, RowCallbackHandler handler) {
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(STREAM_FETCH_SIZE);
+        streaming.query("SELECT row_to_json(p)::text FROM " + partitionName(month) + " p ORDER BY id", handler);
+    }
+
+    public void dropPartition(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE " + partitionName(month));
+    }
+
+    private static String bounds(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        return "FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+    }
+}
@@ -3,19 +3,64 @@ package com.kiemnv.MindGardAPI.repository;
 import com.kiemnv.MindGardAPI.entity.PomodoroSession;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PomodoroRepository extends JpaRepository<PomodoroSession, Long> {
     Page<PomodoroSession> findByUserId(Long userId, Pageable pageable);
     List<PomodoroSession> findTop1000ByUserIdAndStatusOrderByStartAtDesc(Long userId, PomodoroSession.Status status);
+
+    /** Focus-session columns only (id, startAt, endAt, durationSeconds, task), newest first; no entity hydration */
+    @Query("SELECT p.id, p.startAt, p.endAt, p.durationSeconds, p.task FROM PomodoroSession p " +
+           "WHERE p.user.id = :userId AND p.status = 'FINISHED' AND p.startAt IS NOT NULL " +
+           "ORDER BY p.startAt DESC, p.id DESC")
+    List<Object[]> findFocusSessionRows(@Param("userId") Long userId, Pageable pageable);
+
+    /** Next keyset page: sessions ordered strictly after (startAt, id) in (startAt desc, id desc) order */
+    @Query("SELECT p.id, p.startAt, p.endAt, p.durationSeconds, p.task FROM PomodoroSession p " +
+           "WHERE p.user.id = :userId AND p.status = 'FINISHED' " +
+           "AND (p.startAt < :startAt OR (p.startAt = :startAt AND p.id < :id)) " +
+           "ORDER BY p.startAt DESC, p.id DESC")
+    List<Object[]> findFocusSessionRowsAfter(@Param("userId") Long userId, @Param("startAt") LocalDateTime startAt,
+                                             @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Sessions recorded under a client key, oldest first. Once partitioned, the unique key is
+     * (user_id, session_uuid, end_at), so the same key can repeat with a different end_at.
+     */
+    List<PomodoroSession> findByUserIdAndSessionUuidOrderByIdAsc(Long userId, String sessionUuid);
+
+    /** Row-locked read, so stop() and the auto-finalizer cannot both close a running session */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PomodoroSession p WHERE p.id = :id")
+    Optional<PomodoroSession> findByIdForUpdate(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE PomodoroSession p SET p.lastHeartbeatAt = :at WHERE p.id = :id AND p.user.id = :userId AND p.status = 'RUNNING'")
+    int touchRunning(@Param("id") Long id, @Param("userId") Long userId, @Param("at") LocalDateTime at);
+
+    /** Timer state of RUNNING sessions: id, userId, startAt, plannedSeconds, lastHeartbeatAt */
+    @Query("SELECT p.id, p.user.id, p.startAt, p.plannedSeconds, p.lastHeartbeatAt FROM PomodoroSession p WHERE p.status = 'RUNNING'")
+    List<Object[]> findRunningTimers();
+
+    @Query("SELECT p.id, p.user.id, p.startAt, p.plannedSeconds, p.lastHeartbeatAt FROM PomodoroSession p " +
+           "WHERE p.status = 'RUNNING' AND p.id IN :ids")
+    List<Object[]> findRunningTimersByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.sessionUuid FROM PomodoroSession p WHERE p.user.id = :userId AND p.sessionUuid IN :sessionUuids")
+    List<String> findSessionUuids(@Param("userId") Long userId, @Param("sessionUuids") Collection<String> sessionUuids);
     
     @Query("SELECT COUNT(p) FROM PomodoroSession p WHERE p.user.id = :userId AND p.status = 'FINISHED'")
     Long countFinishedByUserId(@Param("userId") Long userId);
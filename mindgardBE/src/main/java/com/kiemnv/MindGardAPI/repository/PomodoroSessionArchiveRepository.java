@@ -0,0 +1,15 @@
+package com.kiemnv.MindGardAPI.repository;
+
+import com.kiemnv.MindGardAPI.entity.PomodoroSessionArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PomodoroSessionArchiveRepository extends JpaRepository<PomodoroSessionArchive, Long> {
+    List<PomodoroSessionArchive> findByMonthOrderByChunk(LocalDate month);
+
+    long countByMonth(LocalDate month);
+}
@@ -0,0 +1,64 @@
+package com.kiemnv.MindGardAPI.repository;
+
+import com.kiemnv.MindGardAPI.entity.SessionOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SessionOutboxRepository extends JpaRepository<SessionOutboxEvent, Long> {
+
+    /**
+     * Claim the oldest pending events. Rows stay locked until the caller's transaction ends;
+     * SKIP LOCKED lets other workers (and other instances) claim the next rows meanwhile.
+     */
+    @Query(value = "SELECT * FROM session_outbox WHERE processed_at IS NULL AND attempts < :maxAttempts " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<SessionOutboxEvent> claimPending(@Param("maxAttempts") int maxAttempts, @Param("limit") int limit);
+
+    /** Re-claim specific events (per-user retry after a failed batch). */
+    @Query(value = "SELECT * FROM session_outbox WHERE id IN (:ids) AND processed_at IS NULL " +
+            "ORDER BY id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<SessionOutboxEvent> claimByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Block until this transaction holds the user's projection lock, so one user's events are never
+     * applied by two workers or instances at once. Ids wrap into the int key space; a collision only serializes more.
+     */
+    @Query(value = "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock(:namespace, CAST(:userId % 2147483647 AS int))) l",
+            nativeQuery = true)
+    long lockUser(@Param("namespace") int namespace, @Param("userId") long userId);
+
+    @Modifying
+    @Query("UPDATE SessionOutboxEvent e SET e.processedAt = :now WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE SessionOutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error WHERE e.id IN :ids")
+    int markFailed(@Param("ids") Collection<Long> ids, @Param("error") String error);
+
+    @Query("SELECT COUNT(e) FROM SessionOutboxEvent e WHERE e.processedAt IS NULL AND e.attempts < :maxAttempts")
+    long countPending(@Param("maxAttempts") int maxAttempts);
+
+    @Query("SELECT COUNT(e) FROM SessionOutboxEvent e WHERE e.processedAt IS NULL AND e.attempts >= :maxAttempts")
+    long countParked(@Param("maxAttempts") int maxAttempts);
+
+    @Query("SELECT MIN(e.createdAt) FROM SessionOutboxEvent e WHERE e.processedAt IS NULL AND e.attempts < :maxAttempts")
+    LocalDateTime findOldestPendingCreatedAt(@Param("maxAttempts") int maxAttempts);
+
+    /** Put parked events (optionally one user's) back in the queue. */
+    @Modifying
+    @Query("UPDATE SessionOutboxEvent e SET e.attempts = 0, e.lastError = NULL " +
+           "WHERE e.processedAt IS NULL AND e.attempts >= :maxAttempts AND (:userId IS NULL OR e.userId = :userId)")
+    int replayParked(@Param("maxAttempts") int maxAttempts, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM SessionOutboxEvent e WHERE e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
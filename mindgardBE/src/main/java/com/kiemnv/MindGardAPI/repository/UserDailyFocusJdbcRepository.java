@@ -0,0 +1,107 @@
+package com.kiemnv.MindGardAPI.repository;
+
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardRegion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk access to user_daily_focus that JPQL cannot express: the streaming read of the
+ * leaderboard aggregation pass, and the rebuild from pomodoro_sessions.
+ * Streamed rows come through a forward-only cursor one fetch page at a time, so a pass over
+ * millions of rollup rows never holds them all in memory.
+ * Must run inside a transaction: PostgreSQL only pages with autocommit off.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserDailyFocusJdbcRepository {
+
+    private static final int STREAM_FETCH_SIZE = 5000;
+
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(long userId, LocalDate day, long seconds, int finished);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<String> findSettingsTimezones() {
+        return jdbcTemplate.queryForList("SELECT DISTINCT timezone FROM settings WHERE timezone IS NOT NULL", String.class);
+    }
+
+    /**
+     * Rebuild the rollup from pomodoro_sessions (end_at in UTC), bucketed like the write path: each user's
+     * region comes from the timezone in their settings, and the day is the session's end in that region's zone.
+     * Rows from the day before the oldest stored session onwards are deleted and recomputed, so re-running
+     * it never double counts; older rows (months already archived out of pomodoro_sessions) are kept.
+     * Rollup writes of the projection wait until commit, and sessions whose outbox event is still pending
+     * are left to the projection.
+     * @param regions region of every timezone found in settings; users without one go to the default region
+     */
+    public int rebuildFromSessions(Map<String, LeaderboardRegion> regions, LocalDateTime now) {
+        jdbcTemplate.execute("LOCK TABLE user_daily_focus IN EXCLUSIVE MODE");
+        LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(end_at) FROM pomodoro_sessions "
+                + "WHERE status IN ('FINISHED', 'ABORTED')", LocalDateTime.class);
+        if (oldest == null) return 0;
+        jdbcTemplate.update("DELETE FROM user_daily_focus WHERE day >= ?", oldest.toLocalDate().minusDays(1));
+
+        StringBuilder values = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        args.add(now);
+        regions.forEach((timezone, region) -> {
+            values.append(values.length() == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+            args.add(timezone);
+            args.add(region.getId());
+            args.add(region.getZone().getId());
+        });
+        if (values.length() == 0) values.append("(NULL, NULL, NULL)");
+        LeaderboardRegion fallback = LeaderboardRegion.DEFAULT;
+        args.add(fallback.getZone().getId());
+        args.add(fallback.getId());
+        return jdbcTemplate.update("""
+                INSERT INTO user_daily_focus (user_id, day, region, seconds, finished, partial, updated_at)
+                SELECT p.user_id, s.day, s.region, SUM(p.duration_seconds),
+                       COUNT(*) FILTER (WHERE p.status = 'FINISHED'), COUNT(*) FILTER (WHERE p.status = 'ABORTED'), ?
+                FROM pomodoro_sessions p
+                LEFT JOIN settings st ON st.user_id = p.user_id
+                LEFT JOIN (VALUES %s) r (timezone, region, zone) ON r.timezone = st.timezone
+                CROSS JOIN LATERAL (SELECT
+                    CAST((p.end_at AT TIME ZONE 'UTC') AT TIME ZONE COALESCE(r.zone, ?) AS date) AS day,
+                    COALESCE(r.region, ?) AS region) s
+                WHERE p.status IN ('FINISHED', 'ABORTED') AND p.end_at IS NOT NULL AND p.duration_seconds >= 60
+                  AND NOT EXISTS (SELECT 1 FROM session_outbox o WHERE o.session_id = p.id AND o.processed_at IS NULL)
+                GROUP BY p.user_id, s.day, s.region
+                """.formatted(values), args.toArray());
+    }
+
+    /**
+     * Rollup rows over an inclusive day range (one region's rows, or all for a null region),
+     * ordered by user then newest day first, as MetricScoreAggregator expects. Returns the row count.
+     */
+    public int streamRows(String region, LocalDate startDay, LocalDate endDay, RowConsumer consumer) {
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(STREAM_FETCH_SIZE);
+        int[] count = new int[1];
+        String sql = "SELECT user_id, day, seconds, finished FROM user_daily_focus "
+                + "WHERE day >= ? AND day <= ?" + (region != null ? " AND region = ?" : "")
+                + " ORDER BY user_id, day DESC";
+        Object[] args = region != null ? new Object[]{startDay, endDay, region} : new Object[]{startDay, endDay};
+        streaming.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            for (int i = 0; i < args.length; i++) ps.setObject(i + 1, args[i]);
+            return ps;
+        }, rs -> {
+            consumer.accept(rs.getLong(1), rs.getObject(2, LocalDate.class), rs.getLong(3), rs.getInt(4));
+            count[0]++;
+        });
+        return count[0];
+    }
+}
@@ -0,0 +1,53 @@
+package com.kiemnv.MindGardAPI.repository;
+
+import com.kiemnv.MindGardAPI.entity.UserDailyFocus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UserDailyFocusRepository extends JpaRepository<UserDailyFocus, Long> {
+
+    /** Add one session to the user's rollup row for the day (creates the row on first session) */
+    @Modifying
+    @Query(value = "INSERT INTO user_daily_focus (user_id, day, region, seconds, finished, partial, updated_at) " +
+            "VALUES (:userId, :day, :region, :seconds, :finished, :partial, :now) " +
+            "ON CONFLICT (user_id, day) DO UPDATE SET " +
+            "region = EXCLUDED.region, " +
+            "seconds = user_daily_focus.seconds + EXCLUDED.seconds, " +
+            "finished = user_daily_focus.finished + EXCLUDED.finished, " +
+            "partial = user_daily_focus.partial + EXCLUDED.partial, " +
+            "updated_at = EXCLUDED.updated_at", nativeQuery = true)
+    void addSession(@Param("userId") Long userId, @Param("day") LocalDate day, @Param("region") String region,
+                    @Param("seconds") long seconds, @Param("finished") int finished, @Param("partial") int partial,
+                    @Param("now") LocalDateTime now);
+
+    /** Sum of a user's focus seconds over an inclusive day range */
+    @Query("SELECT SUM(d.seconds) FROM UserDailyFocus d WHERE d.user.id = :userId AND d.day >= :startDay AND d.day <= :endDay")
+    Long sumSecondsByUserIdAndDayRange(@Param("userId") Long userId, @Param("startDay") LocalDate startDay, @Param("endDay") LocalDate endDay);
+
+    /** Sum of a user's focus seconds in one region over an inclusive day range */
+    @Query("SELECT SUM(d.seconds) FROM UserDailyFocus d WHERE d.user.id = :userId AND d.region = :region " +
+           "AND d.day >= :startDay AND d.day <= :endDay")
+    Long sumSecondsByUserIdAndRegionAndDayRange(@Param("userId") Long userId, @Param("region") String region,
+                                                @Param("startDay") LocalDate startDay, @Param("endDay") LocalDate endDay);
+
+    /** Batch query: focus seconds grouped by user over an inclusive day range */
+    @Query("SELECT d.user.id, SUM(d.seconds) FROM UserDailyFocus d " +
+           "WHERE d.day >= :startDay AND d.day <= :endDay " +
+           "GROUP BY d.user.id")
+    List<Object[]> sumSecondsGroupedByUser(@Param("startDay") LocalDate startDay, @Param("endDay") LocalDate endDay);
+
+    /** Batch query: focus seconds grouped by user over an inclusive day range, one region's rows only */
+    @Query("SELECT d.user.id, SUM(d.seconds) FROM UserDailyFocus d " +
+           "WHERE d.region = :region AND d.day >= :startDay AND d.day <= :endDay " +
+           "GROUP BY d.user.id")
+    List<Object[]> sumSecondsGroupedByUserInRegion(@Param("region") String region,
+                                                   @Param("startDay") LocalDate startDay, @Param("endDay") LocalDate endDay);
+}
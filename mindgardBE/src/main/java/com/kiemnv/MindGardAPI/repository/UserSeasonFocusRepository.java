@@ -0,0 +1,54 @@
+package com.kiemnv.MindGardAPI.repository;
+
+import com.kiemnv.MindGardAPI.entity.UserSeasonFocus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UserSeasonFocusRepository extends JpaRepository<UserSeasonFocus, Long> {
+
+    /** Add one session to the user's season total (creates the row on first session) */
+    @Modifying
+    @Query(value = "INSERT INTO user_season_focus (user_id, season_id, seconds, updated_at) " +
+            "VALUES (:userId, :seasonId, :seconds, :now) " +
+            "ON CONFLICT (user_id, season_id) DO UPDATE SET " +
+            "seconds = user_season_focus.seconds + EXCLUDED.seconds, " +
+            "updated_at = EXCLUDED.updated_at", nativeQuery = true)
+    void addSeconds(@Param("userId") Long userId, @Param("seasonId") String seasonId,
+                    @Param("seconds") long seconds, @Param("now") LocalDateTime now);
+
+    @Query("SELECT s.seconds FROM UserSeasonFocus s WHERE s.user.id = :userId AND s.seasonId = :seasonId")
+    Long findSeconds(@Param("userId") Long userId, @Param("seasonId") String seasonId);
+
+    /** Batch query: userId, seconds of every qualifying user in a season */
+    @Query("SELECT s.user.id, s.seconds FROM UserSeasonFocus s WHERE s.seasonId = :seasonId AND s.seconds >= 60")
+    List<Object[]> findScoresBySeasonId(@Param("seasonId") String seasonId);
+
+    /**
+     * Block rollup writes until the caller's transaction ends, so a seed reads every committed session
+     * and no projection increments a total the seed is about to replace.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE user_daily_focus IN SHARE MODE", nativeQuery = true)
+    void lockRollup();
+
+    /**
+     * Seed a season from the daily rollup (only needed when a season is configured after its start).
+     * Re-running replaces the totals, so it is safe after a partial seed.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_season_focus (user_id, season_id, seconds, updated_at) " +
+            "SELECT d.user_id, :seasonId, SUM(d.seconds), :now FROM user_daily_focus d " +
+            "WHERE d.day >= :startDay AND d.day <= :endDay GROUP BY d.user_id " +
+            "ON CONFLICT (user_id, season_id) DO UPDATE SET " +
+            "seconds = EXCLUDED.seconds, updated_at = EXCLUDED.updated_at", nativeQuery = true)
+    int backfillFromRollup(@Param("seasonId") String seasonId, @Param("startDay") LocalDate startDay,
+                           @Param("endDay") LocalDate endDay, @Param("now") LocalDateTime now);
+}
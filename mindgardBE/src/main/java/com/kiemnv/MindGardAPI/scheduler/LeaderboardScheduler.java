@@ -1,130 +1,255 @@
 package com.kiemnv.MindGardAPI.scheduler;
 
-import com.kiemnv.MindGardAPI.entity.LeaderboardEntry;
-import com.kiemnv.MindGardAPI.entity.User;
+import com.kiemnv.MindGardAPI.config.LeaderboardProperties;
+import com.kiemnv.MindGardAPI.entity.LeaderboardRun;
+import com.kiemnv.MindGardAPI.leaderboard.FrozenBoard;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardMetric;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardRegion;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardRow;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardSeason;
+import com.kiemnv.MindGardAPI.leaderboard.MetricScoreAggregator;
+import com.kiemnv.MindGardAPI.repository.LeaderboardJdbcRepository;
 import com.kiemnv.MindGardAPI.repository.LeaderboardRepository;
-import com.kiemnv.MindGardAPI.repository.PomodoroRepository;
-import com.kiemnv.MindGardAPI.repository.UserRepository;
+import com.kiemnv.MindGardAPI.repository.LeaderboardRunRepository;
+import com.kiemnv.MindGardAPI.service.FocusRollupService;
+import com.kiemnv.MindGardAPI.service.LeaderboardArchiveService;
+import com.kiemnv.MindGardAPI.service.LeaderboardRankCache;
+import com.kiemnv.MindGardAPI.service.LeaderboardService;
+import com.kiemnv.MindGardAPI.service.LeaderboardStreamService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class LeaderboardScheduler {
 
+    /** Advisory lock key electing the instance that computes leaderboards ("MGLB"). */
+    private static final long LEADER_LOCK_KEY = 0x4D474C42L;
+    private static final String INSTANCE_ID = ManagementFactory.getRuntimeMXBean().getName();
+    private static final long RUN_INTERVAL_MS = 300_000; // 5 minutes
+    /** Trigger jitter tolerated before this instance's own next run counts as due */
+    private static final long RUN_INTERVAL_SLACK_MS = 30_000;
+    private static final String[] PERIODS = {"daily", "weekly", "monthly"};
+    /** Boards computed per run: the global one (null) and one per region. */
+    private static final LeaderboardRegion[] REGIONS = {null, LeaderboardRegion.ASIA, LeaderboardRegion.EUROPE, LeaderboardRegion.AMERICAS};
+
     private final LeaderboardRepository leaderboardRepository;
-    private final PomodoroRepository pomodoroRepository;
-    private final UserRepository userRepository;
+    private final LeaderboardRunRepository leaderboardRunRepository;
+    private final FocusRollupService focusRollupService;
+    private final LeaderboardJdbcRepository leaderboardJdbcRepository;
+    private final LeaderboardRankCache rankCache;
+    private final LeaderboardService leaderboardService;
+    private final LeaderboardStreamService leaderboardStreamService;
+    private final LeaderboardArchiveService leaderboardArchiveService;
+    private final LeaderboardProperties leaderboardProperties;
+
+    /** Id of the newest run this instance has applied (its own or another leader's). */
+    private final AtomicLong lastSeenRunId = new AtomicLong();
 
     /**
-     * Compute and cache leaderboard every 5 minutes for daily, weekly, monthly.
+     * Compute and cache leaderboard every 5 minutes for daily, weekly, monthly and every metric.
+     * All boards of a region come from a single ordered read of the daily rollup;
+     * regional boards use the region's own "today".
+     * Every replica fires this, but only one replica per interval does the batch work: the lock holder,
+     * and only if no run started within the interval. The others just reload their rank indexes
+     * once a newer run shows up.
      */
-    @Scheduled(fixedRate = 300_000) // 5 minutes
+    @Scheduled(fixedRate = RUN_INTERVAL_MS)
     @Transactional
     public void computeAllLeaderboards() {
-        log.info("[LeaderboardScheduler] Starting leaderboard computation...");
+        if (!leaderboardRunRepository.tryAdvisoryXactLock(LEADER_LOCK_KEY)) {
+            followLeader();
+            return;
+        }
+        // The lock only makes replicas take turns; a run started within this interval already covers it
+        Optional<LeaderboardRun> latest = leaderboardRunRepository.findTopByOrderByIdDesc();
+        if (latest.isPresent() && latest.get().getStartedAt()
+                .isAfter(LocalDateTime.now().minus(Duration.ofMillis(RUN_INTERVAL_MS - RUN_INTERVAL_SLACK_MS)))) {
+            followLeader();
+            return;
+        }
+
+        log.info("[LeaderboardScheduler] Starting leaderboard computation on {}...", INSTANCE_ID);
+        LocalDateTime startedAt = LocalDateTime.now();
         long start = System.currentTimeMillis();
 
-        LocalDate today = LocalDate.now();
-        Map<Long, User> userMap = userRepository.findAll().stream()
-                .collect(Collectors.toMap(User::getId, u -> u, (a, b) -> a));
+        int[] written = new int[2];
+        for (LeaderboardRegion region : REGIONS) {
+            LocalDate today = LeaderboardService.today(region);
+            Map<String, LocalDate[]> ranges = new LinkedHashMap<>();
+            for (String period : PERIODS) {
+                LocalDateTime[] range = getDateRange(period, today);
+                ranges.put(period, new LocalDate[]{range[0].toLocalDate(), range[1].toLocalDate()});
+            }
+            MetricScoreAggregator scores = focusRollupService.aggregate(region, today, ranges);
 
-        computeAndCacheLeaderboard("daily", today, userMap);
-        computeAndCacheLeaderboard("weekly", today, userMap);
-        computeAndCacheLeaderboard("monthly", today, userMap);
+            for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+                for (String period : PERIODS) {
+                    int[] counts = computeAndCacheLeaderboard(metric, region, period, today, scores);
+                    written[0] += counts[0];
+                    written[1] += counts[1];
+                }
+            }
+        }
 
         long elapsed = System.currentTimeMillis() - start;
-        log.info("[LeaderboardScheduler] Completed in {}ms", elapsed);
+        LeaderboardRun run = leaderboardRunRepository.save(LeaderboardRun.builder()
+                .instanceId(INSTANCE_ID)
+                .startedAt(startedAt)
+                .finishedAt(LocalDateTime.now())
+                .durationMs(elapsed)
+                .rowsWritten(written[0])
+                .rowsDeleted(written[1])
+                .build());
+        lastSeenRunId.accumulateAndGet(run.getId(), Math::max);
+        invalidateStandingBoards();
+        log.info("[LeaderboardScheduler] Completed in {}ms ({} upserted, {} deleted)", elapsed, written[0], written[1]);
     }
 
-    private void computeAndCacheLeaderboard(String period, LocalDate date, Map<Long, User> userMap) {
-        String currentKey = buildPeriodKey(period, date);
-        String previousKey = buildPreviousPeriodKey(period, date);
+    /** Another instance holds the lock: drop local indexes once it has published a newer run. */
+    private void followLeader() {
+        leaderboardRunRepository.findTopByOrderByIdDesc().ifPresent(run -> {
+            long previous = lastSeenRunId.getAndAccumulate(run.getId(), Math::max);
+            if (run.getId() <= previous) return;
+            for (LeaderboardRegion region : REGIONS) {
+                LocalDate today = LeaderboardService.today(region);
+                for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+                    for (String period : PERIODS) rankCache.invalidate(boardKey(period, today, metric, region));
+                }
+            }
+            invalidateStandingBoards();
+            log.info("[LeaderboardScheduler] Run {} by {} picked up, rank indexes reloaded", run.getId(), run.getInstanceId());
+        });
+    }
 
-        // 1. Calculate date range for this period
-        LocalDateTime[] range = getDateRange(period, date);
-        LocalDateTime startDate = range[0];
-        LocalDateTime endDate = range[1];
+    /**
+     * All-time and season indexes only move by this instance's write-through, so each run drops them
+     * to reload from user_season_focus and pick up sessions projected on other instances.
+     */
+    private void invalidateStandingBoards() {
+        rankCache.invalidate(boardKey("alltime", null, LeaderboardMetric.FOCUS, null));
+        for (LeaderboardSeason season : leaderboardProperties.getSeasons()) {
+            rankCache.invalidate(boardKey(season.period(), null, LeaderboardMetric.FOCUS, null));
+        }
+    }
 
-        log.info("[LeaderboardScheduler] Computing {}: key={}, range=[{}, {}]", period, currentKey, startDate, endDate);
+    /**
+     * Persist ranks moved by write-through since the last flush.
+     * Write-through only touches the in-memory index, so this keeps current_rank close behind it.
+     */
+    @Scheduled(fixedDelay = 30_000, initialDelay = 30_000)
+    public void flushDirtyRanks() {
+        leaderboardService.persistDirtyRanks();
+    }
 
-        // 2. Batch query: get total seconds for all users in 1 query
-        List<Object[]> results = pomodoroRepository.sumDurationGroupedByUser(startDate, endDate);
+    /**
+     * Compact closed periods into leaderboard_archives and purge their live rows.
+     * Runs nightly, after the daily board of the previous day has closed.
+     */
+    @Scheduled(cron = "0 15 3 * * *")
+    public void compactClosedPeriods() {
+        leaderboardArchiveService.compactClosedPeriods();
+    }
 
-        // 3. Build entries, sort by total seconds desc
-        List<UserScore> scores = new ArrayList<>();
-        for (Object[] row : results) {
-            Long userId = (Long) row[0];
-            Long totalSeconds = (Long) row[1];
-            if (totalSeconds == null || totalSeconds < 60) continue;
-            scores.add(new UserScore(userId, totalSeconds));
-        }
-        scores.sort((a, b) -> Long.compare(b.totalSeconds, a.totalSeconds));
+    /**
+     * Push coalesced leaderboard deltas to SSE subscribers.
+     * Any number of write-throughs within one tick produce at most one event per period.
+     */
+    @Scheduled(fixedDelay = 2_000, initialDelay = 2_000)
+    public void publishStreamDeltas() {
+        leaderboardStreamService.publishChanges();
+    }
 
-        // 4. Get previous period ranks for trend calculation
-        Map<Long, Integer> previousRankMap = new HashMap<>();
-        List<LeaderboardEntry> previousEntries = leaderboardRepository.findByPeriodKeyOrderByRankAsc(previousKey);
-        for (LeaderboardEntry prev : previousEntries) {
-            previousRankMap.put(prev.getUser().getId(), prev.getRank());
-        }
+    /** Returns {rows upserted, rows deleted}. */
+    private int[] computeAndCacheLeaderboard(LeaderboardMetric metric, LeaderboardRegion region, String period,
+                                             LocalDate date, MetricScoreAggregator aggregated) {
+        String currentKey = boardKey(period, date, metric, region);
+
+        log.info("[LeaderboardScheduler] Computing {} {}: key={}", metric.getId(), period, currentKey);
+
+        // 1-3. Scores of every qualifying user from the shared rollup pass, sorted by score desc
+        Map<Long, Long> fullPopulation = aggregated.scores(metric, period);
+        Map<Long, Long> focusSeconds = aggregated.scores(LeaderboardMetric.FOCUS, period);
+        List<UserScore> scores = new ArrayList<>(fullPopulation.size());
+        fullPopulation.forEach((userId, score) -> scores.add(new UserScore(userId, score)));
+        scores.sort((a, b) -> {
+            int c = Long.compare(b.score, a.score);
+            return c != 0 ? c : Long.compare(a.userId, b.userId);
+        });
+
+        // Refresh the in-memory rank index with the whole population, not just the top 100
+        rankCache.replace(currentKey, fullPopulation);
 
-        // 5. Delete old entries for current period, then insert new ones
-        leaderboardRepository.deleteByPeriodKey(currentKey);
-        leaderboardRepository.flush();
+        // 4. Previous period ranks for trend calculation: primitive userId -> rank table of its frozen board
+        // (no entity loading; its live rows may already be compacted into leaderboard_archives)
+        FrozenBoard previousBoard = leaderboardService.frozenBoard(
+                period, LeaderboardService.previousDate(period, date), metric, region);
 
-        List<LeaderboardEntry> newEntries = new ArrayList<>();
+        // 5. Diff against stored rows: upsert only changed rows, delete only those that dropped off
+        Map<Long, LeaderboardRow> existing = new HashMap<>();
+        for (Object[] row : leaderboardRepository.findRowsByPeriodKey(currentKey)) {
+            existing.put((Long) row[0], LeaderboardRow.builder()
+                    .userId((Long) row[0])
+                    .totalSeconds((Long) row[1])
+                    .rank((Integer) row[2])
+                    .previousRank((Integer) row[3])
+                    .trend((String) row[4])
+                    .score((Long) row[5])
+                    .build());
+        }
+
+        List<LeaderboardRow> changed = new ArrayList<>();
+        Set<Long> onBoard = new HashSet<>();
         for (int i = 0; i < scores.size() && i < 100; i++) {
             UserScore us = scores.get(i);
             int currentRank = i + 1;
-            Integer prevRank = previousRankMap.get(us.userId);
-
-            String trend;
-            if (prevRank == null) {
-                trend = "up"; // New entry
-            } else if (currentRank < prevRank) {
-                trend = "up";
-            } else if (currentRank > prevRank) {
-                trend = "down";
-            } else {
-                trend = "stable";
-            }
+            Integer prevRank = previousBoard.rankOf(us.userId);
 
-            User user = userMap.get(us.userId);
-            if (user == null) continue;
+            String trend = FrozenBoard.trend(currentRank, prevRank);
 
-            LeaderboardEntry entry = LeaderboardEntry.builder()
-                    .user(user)
+            LeaderboardRow row = LeaderboardRow.builder()
+                    .userId(us.userId)
                     .period(period)
                     .periodKey(currentKey)
-                    .totalSeconds(us.totalSeconds)
-                    .totalMinutes(us.totalSeconds / 60)
+                    .metric(metric.getId())
+                    .score(us.score)
+                    .totalSeconds(focusSeconds.getOrDefault(us.userId, 0L))
                     .rank(currentRank)
                     .previousRank(prevRank)
                     .trend(trend)
-                    .createdAt(LocalDateTime.now())
-                    .updatedAt(LocalDateTime.now())
                     .build();
 
-            newEntries.add(entry);
+            onBoard.add(us.userId);
+            if (!row.sameAs(existing.get(us.userId))) changed.add(row);
         }
 
-        leaderboardRepository.saveAll(newEntries);
-        log.info("[LeaderboardScheduler] Cached {} entries for {}", newEntries.size(), currentKey);
+        Set<Long> droppedOff = new HashSet<>(existing.keySet());
+        droppedOff.removeAll(onBoard);
+
+        int upserted = leaderboardJdbcRepository.upsert(changed);
+        int deleted = droppedOff.isEmpty() ? 0 : leaderboardRepository.deleteByPeriodKeyAndUserIdIn(currentKey, droppedOff);
+        if (upserted > 0 || deleted > 0) rankCache.bumpVersionAfterCommit(currentKey);
+        log.info("[LeaderboardScheduler] {}: {} on board, {} upserted, {} deleted, {} unchanged",
+                currentKey, onBoard.size(), upserted, deleted, onBoard.size() - changed.size());
+        return new int[]{upserted, deleted};
     }
 
     // --- Helper methods ---
 
     public static String buildPeriodKey(String period, LocalDate date) {
+        if (isStanding(period)) return period;
         switch (period.toLowerCase()) {
             case "daily":
                 return "daily:" + date.toString();
@@ -139,17 +264,21 @@ public class LeaderboardScheduler {
         }
     }
 
-    private String buildPreviousPeriodKey(String period, LocalDate date) {
-        switch (period.toLowerCase()) {
-            case "daily":
-                return buildPeriodKey("daily", date.minusDays(1));
-            case "weekly":
-                return buildPeriodKey("weekly", date.minusWeeks(1));
-            case "monthly":
-                return buildPeriodKey("monthly", date.minusMonths(1));
-            default:
-                return buildPeriodKey("daily", date.minusDays(1));
-        }
+    /**
+     * All-time ("alltime") and season ("season:<id>") boards span no calendar period:
+     * their key is the period itself and they are maintained by write-through only.
+     */
+    public static boolean isStanding(String period) {
+        return "alltime".equals(period) || period.startsWith("season:");
+    }
+
+    /**
+     * Stored key of one board: metric prefix, then region prefix, then the period key,
+     * e.g. "xp:europe/weekly:2026-03-02". A null region is the global board.
+     */
+    public static String boardKey(String period, LocalDate date, LeaderboardMetric metric, LeaderboardRegion region) {
+        String periodKey = buildPeriodKey(period, date);
+        return metric.qualify(region != null ? region.qualify(periodKey) : periodKey);
     }
 
     private LocalDateTime[] getDateRange(String period, LocalDate date) {
@@ -180,11 +309,11 @@ public class LeaderboardScheduler {
 
     private static class UserScore {
         final Long userId;
-        final Long totalSeconds;
+        final Long score;
 
-        UserScore(Long userId, Long totalSeconds) {
+        UserScore(Long userId, Long score) {
             this.userId = userId;
-            this.totalSeconds = totalSeconds;
+            this.score = score;
         }
     }
 }
@@ -0,0 +1,138 @@
+package com.kiemnv.MindGardAPI.service;
+
+import com.kiemnv.MindGardAPI.entity.DistractionEvent;
+import com.kiemnv.MindGardAPI.repository.PomodoroJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory, per-session buffer for distraction events. A background flush writes everything buffered
+ * to distraction_events in one JDBC batch every FLUSH_INTERVAL_MS (sooner once MAX_BUFFERED is reached),
+ * so chatty clients cost one batched insert per interval instead of a write per event.
+ * Finalization (stop or the running-session timer) flushes its sessions inside its own transaction first,
+ * then folds the counts into the session row. Buffers are per instance: when another instance finalized a
+ * session, the background flush recounts that session's row after writing its late events.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DistractionBuffer {
+
+    private static final long FLUSH_INTERVAL_MS = 2000;
+    private static final int MAX_BUFFERED = 50_000;
+
+    private final PomodoroJdbcRepository pomodoroJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, List<DistractionEvent>> buffers = new ConcurrentHashMap<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "distraction-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flushAll, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        flushAll();
+    }
+
+    public void add(long sessionId, List<DistractionEvent> events) {
+        if (events.isEmpty()) return;
+        buffers.compute(sessionId, (id, list) -> {
+            if (list == null) list = new ArrayList<>();
+            list.addAll(events);
+            return list;
+        });
+        if (buffered.addAndGet(events.size()) >= MAX_BUFFERED) flusher.execute(this::flushAll);
+    }
+
+    public int buffered() {
+        return buffered.get();
+    }
+
+    /**
+     * Write the given sessions' buffered events in the caller's transaction (before folding counts).
+     * They go back into the buffer if that transaction rolls back.
+     */
+    public void flushSessions(Collection<Long> sessionIds) {
+        List<DistractionEvent> events = new ArrayList<>();
+        for (Long sessionId : sessionIds) {
+            List<DistractionEvent> list = buffers.remove(sessionId);
+            if (list != null) events.addAll(list);
+        }
+        if (events.isEmpty()) return;
+        buffered.addAndGet(-events.size());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) requeue(events);
+                }
+            });
+        }
+        pomodoroJdbcRepository.insertDistractionEvents(events);
+    }
+
+    private void flushAll() {
+        List<DistractionEvent> events = new ArrayList<>();
+        for (Long sessionId : buffers.keySet()) {
+            List<DistractionEvent> list = buffers.remove(sessionId);
+            if (list != null) events.addAll(list);
+        }
+        if (events.isEmpty()) return;
+        buffered.addAndGet(-events.size());
+        try {
+            Set<Long> sessionIds = new HashSet<>();
+            for (DistractionEvent e : events) sessionIds.add(e.getSessionId());
+            transactionTemplate.executeWithoutResult(status -> {
+                pomodoroJdbcRepository.insertDistractionEvents(events);
+                int recounted = pomodoroJdbcRepository.recountClosed(sessionIds);
+                if (recounted > 0) log.debug("[DistractionBuffer] Recounted {} sessions closed elsewhere", recounted);
+            });
+        } catch (Exception e) {
+            log.error("[DistractionBuffer] Flushing {} events failed: {}", events.size(), e.getMessage());
+            requeue(events);
+        }
+    }
+
+    /** Put events back for the next flush, unless the buffer is already full (then they are dropped). */
+    private void requeue(List<DistractionEvent> events) {
+        if (buffered.get() + events.size() > MAX_BUFFERED) {
+            log.warn("[DistractionBuffer] Buffer full, dropping {} events", events.size());
+            return;
+        }
+        for (DistractionEvent e : events) {
+            buffers.compute(e.getSessionId(), (id, list) -> {
+                if (list == null) list = new ArrayList<>();
+                list.add(e);
+                return list;
+            });
+        }
+        buffered.addAndGet(events.size());
+    }
+}
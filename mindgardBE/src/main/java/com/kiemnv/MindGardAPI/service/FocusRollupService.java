@@ -0,0 +1,160 @@
+package com.kiemnv.MindGardAPI.service;
+
+import com.kiemnv.MindGardAPI.config.LeaderboardProperties;
+import com.kiemnv.MindGardAPI.entity.PomodoroSession;
+import com.kiemnv.MindGardAPI.entity.SeasonSeed;
+import com.kiemnv.MindGardAPI.entity.User;
+import com.kiemnv.MindGardAPI.entity.UserSeasonFocus;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardRegion;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardSeason;
+import com.kiemnv.MindGardAPI.leaderboard.MetricScoreAggregator;
+import com.kiemnv.MindGardAPI.repository.SeasonSeedRepository;
+import com.kiemnv.MindGardAPI.repository.UserDailyFocusJdbcRepository;
+import com.kiemnv.MindGardAPI.repository.UserDailyFocusRepository;
+import com.kiemnv.MindGardAPI.repository.UserSeasonFocusRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the user_daily_focus rollup that feeds leaderboard totals.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FocusRollupService {
+
+    private final UserDailyFocusRepository userDailyFocusRepository;
+    private final UserDailyFocusJdbcRepository userDailyFocusJdbcRepository;
+    private final LeaderboardRegionResolver regionResolver;
+    private final UserSeasonFocusRepository userSeasonFocusRepository;
+    private final LeaderboardProperties leaderboardProperties;
+    private final SeasonSeedRepository seasonSeedRepository;
+
+    /**
+     * Fold one recorded session into its day row. Joins the caller's transaction,
+     * so the rollup commits (or rolls back) together with the session insert.
+     * The day is taken in the user's region zone here, so regional boards never convert sessions at read time.
+     * Running totals of the seasons containing that day, and the all-time total, are incremented as well.
+     */
+    @Transactional
+    public void recordSession(User user, Instant endedAt, long durationSeconds, boolean finished) {
+        if (user == null || user.getId() == null || endedAt == null) return;
+        // Same qualifying rule as the leaderboard: sessions under a minute never count
+        if (durationSeconds < 60) return;
+        LeaderboardRegion region = regionResolver.regionOf(user.getId());
+        LocalDate day = endedAt.atZone(region.getZone()).toLocalDate();
+        LocalDateTime now = LocalDateTime.now();
+        userDailyFocusRepository.addSession(user.getId(), day, region.getId(),
+                durationSeconds, finished ? 1 : 0, finished ? 0 : 1, now);
+        userSeasonFocusRepository.addSeconds(user.getId(), UserSeasonFocus.ALLTIME, durationSeconds, now);
+        for (LeaderboardSeason season : leaderboardProperties.seasonsOn(day)) {
+            userSeasonFocusRepository.addSeconds(user.getId(), season.getId(), durationSeconds, now);
+        }
+    }
+
+    /**
+     * Fold a batch of one user's sessions (end_at stored in UTC) into the rollup,
+     * with one upsert per touched day and season instead of one per session.
+     */
+    @Transactional
+    public void recordSessions(User user, List<PomodoroSession> sessions) {
+        if (user == null || user.getId() == null) return;
+        LeaderboardRegion region = regionResolver.regionOf(user.getId());
+        Map<LocalDate, long[]> days = new TreeMap<>(); // day -> {seconds, finished, partial}
+        for (PomodoroSession s : sessions) {
+            if (s.getEndAt() == null || s.getDurationSeconds() == null || s.getDurationSeconds() < 60) continue;
+            LocalDate day = s.getEndAt().atZone(ZoneOffset.UTC).withZoneSameInstant(region.getZone()).toLocalDate();
+            long[] totals = days.computeIfAbsent(day, d -> new long[3]);
+            totals[0] += s.getDurationSeconds();
+            totals[s.getStatus() == PomodoroSession.Status.FINISHED ? 1 : 2]++;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Long> seasons = new HashMap<>();
+        days.forEach((day, totals) -> {
+            userDailyFocusRepository.addSession(user.getId(), day, region.getId(),
+                    totals[0], (int) totals[1], (int) totals[2], now);
+            seasons.merge(UserSeasonFocus.ALLTIME, totals[0], Long::sum);
+            for (LeaderboardSeason season : leaderboardProperties.seasonsOn(day)) {
+                seasons.merge(season.getId(), totals[0], Long::sum);
+            }
+        });
+        seasons.forEach((seasonId, seconds) -> userSeasonFocusRepository.addSeconds(user.getId(), seasonId, seconds, now));
+    }
+
+    /**
+     * Every leaderboard metric for the given periods from one ordered, streamed read of the rollup.
+     * @param ranges period name -> inclusive {startDay, endDay}
+     */
+    @Transactional(readOnly = true)
+    public MetricScoreAggregator aggregate(LocalDate asOf, Map<String, LocalDate[]> ranges) {
+        return aggregate(null, asOf, ranges);
+    }
+
+    /** Same as {@link #aggregate(LocalDate, Map)} over one region's rows; a null region reads all rows. */
+    @Transactional(readOnly = true)
+    public MetricScoreAggregator aggregate(LeaderboardRegion region, LocalDate asOf, Map<String, LocalDate[]> ranges) {
+        long start = System.currentTimeMillis();
+        MetricScoreAggregator aggregator = new MetricScoreAggregator(asOf, ranges);
+        int rows = userDailyFocusJdbcRepository.streamRows(region != null ? region.getId() : null,
+                aggregator.windowStart(), aggregator.windowEnd(), aggregator::accept);
+        log.info("[FocusRollupService] Aggregated {} rollup rows in {}ms", rows, System.currentTimeMillis() - start);
+        return aggregator;
+    }
+
+    /**
+     * Recompute the rollup from pomodoro_sessions with the same region and day bucketing as
+     * {@link #recordSessions}; season totals are seeded again afterwards.
+     */
+    @Transactional
+    public int backfill() {
+        long start = System.currentTimeMillis();
+        Map<String, LeaderboardRegion> regions = new HashMap<>();
+        for (String timezone : userDailyFocusJdbcRepository.findSettingsTimezones()) {
+            regions.put(timezone, LeaderboardRegion.ofTimezone(timezone));
+        }
+        int rows = userDailyFocusJdbcRepository.rebuildFromSessions(regions, LocalDateTime.now());
+        seasonSeedRepository.deleteAllInBatch();
+        log.info("[FocusRollupService] Backfilled {} user_daily_focus rows in {}ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    /**
+     * Seed the all-time totals and those of started seasons from the daily rollup, once per season
+     * (a season configured after its start, or every season after a rollup backfill).
+     * Seeding is tracked in season_seeds rather than by existing totals, since sessions projected while
+     * the application starts already create rows. Rollup writes wait while seeding, so the replaced
+     * totals include every session. Returns the number of seasons seeded.
+     */
+    @Transactional
+    public int backfillSeasons() {
+        int seeded = 0;
+        LocalDate today = LocalDate.now();
+        if (seed(UserSeasonFocus.ALLTIME, LocalDate.of(1970, 1, 1), LocalDate.of(9999, 12, 31))) seeded++;
+        for (LeaderboardSeason season : leaderboardProperties.getSeasons()) {
+            if (season.getStart().isAfter(today)) continue;
+            if (seed(season.getId(), season.getStart(), season.getEnd())) seeded++;
+        }
+        return seeded;
+    }
+
+    private boolean seed(String seasonId, LocalDate startDay, LocalDate endDay) {
+        if (seasonSeedRepository.existsById(seasonId)) return false;
+        userSeasonFocusRepository.lockRollup();
+        LocalDateTime now = LocalDateTime.now();
+        int rows = userSeasonFocusRepository.backfillFromRollup(seasonId, startDay, endDay, now);
+        seasonSeedRepository.save(SeasonSeed.builder().seasonId(seasonId).seededAt(now).build());
+        log.info("[FocusRollupService] Seeded season {} with {} users", seasonId, rows);
+        return true;
+    }
+}
@@ -9,11 +9,16 @@ import com.kiemnv.MindGardAPI.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +27,42 @@ public class FriendService {
     private final FriendRequestRepository friendRequestRepository;
     private final UserRepository userRepository;
 
+    /**
+     * Cached friend-id sets for leaderboard scoping. Evicted locally on every friendship change;
+     * other instances only see the change once their copy expires.
+     */
+    private static final int MAX_CACHED_FRIEND_SETS = 10_000;
+    private static final long FRIEND_IDS_TTL_MS = 60_000;
+    private final Map<Long, FriendIds> friendIdCache = new ConcurrentHashMap<>();
+
+    private record FriendIds(Set<Long> userIds, long loadedAt) {
+    }
+
+    @Transactional(readOnly = true)
+    public Set<Long> friendIds(Long userId) {
+        FriendIds cached = friendIdCache.get(userId);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt() < FRIEND_IDS_TTL_MS) return cached.userIds();
+        Set<Long> ids = Set.copyOf(friendRequestRepository.findFriendIds(userId));
+        if (friendIdCache.size() >= MAX_CACHED_FRIEND_SETS) friendIdCache.clear();
+        friendIdCache.put(userId, new FriendIds(ids, System.currentTimeMillis()));
+        return ids;
+    }
+
+    private void evictFriendIds(Long a, Long b) {
+        friendIdCache.remove(a);
+        friendIdCache.remove(b);
+        // Evict again after commit, in case a concurrent read re-cached the old set meanwhile
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    friendIdCache.remove(a);
+                    friendIdCache.remove(b);
+                }
+            });
+        }
+    }
+
     @Transactional(readOnly = true)
     public long countFriends(Long userId) {
         return friendRequestRepository.countFriends(userId);
@@ -75,6 +116,7 @@ public class FriendService {
                 if (fr.getRequester().getId().equals(recipientId)) {
                     fr.setStatus(FriendRequest.Status.ACCEPTED);
                     fr.setRespondedAt(LocalDateTime.now());
+                    evictFriendIds(viewer.getId(), recipientId);
                     return toDto(friendRequestRepository.save(fr));
                 }
                 // already sent
@@ -120,6 +162,7 @@ public class FriendService {
         if (fr.getStatus() != FriendRequest.Status.PENDING) return toDto(fr);
         fr.setStatus(FriendRequest.Status.ACCEPTED);
         fr.setRespondedAt(LocalDateTime.now());
+        evictFriendIds(fr.getRequester().getId(), fr.getRecipient().getId());
         return toDto(friendRequestRepository.save(fr));
     }
 
@@ -150,6 +193,7 @@ public class FriendService {
         for (FriendRequest fr : any) {
             if (fr.getStatus() == FriendRequest.Status.ACCEPTED) {
                 friendRequestRepository.delete(fr);
+                evictFriendIds(viewer.getId(), otherUserId);
                 return;
             }
         }
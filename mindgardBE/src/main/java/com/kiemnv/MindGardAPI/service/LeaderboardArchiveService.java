@@ -0,0 +1,107 @@
+package com.kiemnv.MindGardAPI.service;
+
+import com.kiemnv.MindGardAPI.entity.LeaderboardArchive;
+import com.kiemnv.MindGardAPI.leaderboard.FrozenBoard;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardArchiveCodec;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardMetric;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardRegion;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardRow;
+import com.kiemnv.MindGardAPI.leaderboard.RankedScore;
+import com.kiemnv.MindGardAPI.repository.LeaderboardArchiveRepository;
+import com.kiemnv.MindGardAPI.repository.LeaderboardRepository;
+import com.kiemnv.MindGardAPI.repository.LeaderboardRunRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves closed periods out of leaderboard_entries into one compressed leaderboard_archives row each.
+ * The archive holds the full frozen population (not only the stored top 100), so every read path
+ * for a closed period keeps working from {@link LeaderboardHistoryService}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeaderboardArchiveService {
+
+    /** Advisory lock key so only one replica compacts at a time ("MGLA"). */
+    private static final long ARCHIVE_LOCK_KEY = 0x4D474C41L;
+
+    private final LeaderboardRepository leaderboardRepository;
+    private final LeaderboardArchiveRepository archiveRepository;
+    private final LeaderboardRunRepository leaderboardRunRepository;
+    private final LeaderboardService leaderboardService;
+
+    /** Archive every closed period key that still has live rows. Returns the number of keys compacted. */
+    @Transactional
+    public int compactClosedPeriods() {
+        if (!leaderboardRunRepository.tryAdvisoryXactLock(ARCHIVE_LOCK_KEY)) {
+            log.info("[LeaderboardArchiveService] Another instance is compacting, skipping");
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        int compacted = 0;
+        for (String periodKey : leaderboardRepository.findDistinctPeriodKeys()) {
+            LeaderboardMetric metric = LeaderboardMetric.ofPeriodKey(periodKey);
+            String plainKey = metric == LeaderboardMetric.FOCUS ? periodKey : periodKey.substring(metric.getId().length() + 1);
+            LeaderboardRegion region = LeaderboardRegion.ofPeriodKey(plainKey);
+            if (region != null) plainKey = plainKey.substring(region.getId().length() + 1);
+            int colon = plainKey.indexOf(':');
+            if (colon < 0) continue;
+            String period = plainKey.substring(0, colon);
+            LocalDate date = parseStart(period, plainKey.substring(colon + 1));
+            if (date == null) {
+                log.warn("[LeaderboardArchiveService] Skipping unrecognized period key {}", periodKey);
+                continue;
+            }
+            if (!leaderboardService.isClosed(period, date, region)) continue;
+
+            if (!archiveRepository.existsById(periodKey)) {
+                archive(periodKey, period, metric, leaderboardService.frozenBoard(period, date, metric, region));
+            }
+            leaderboardRepository.deleteByPeriodKey(periodKey);
+            compacted++;
+        }
+        log.info("[LeaderboardArchiveService] Compacted {} period keys in {}ms", compacted, System.currentTimeMillis() - start);
+        return compacted;
+    }
+
+    private void archive(String periodKey, String period, LeaderboardMetric metric, FrozenBoard board) {
+        List<RankedScore> ranked = board.range(0, board.size());
+        List<LeaderboardRow> rows = new ArrayList<>(ranked.size());
+        for (RankedScore r : ranked) {
+            rows.add(LeaderboardRow.builder()
+                    .userId(r.getUserId())
+                    .score(r.getScore())
+                    .rank(r.getRank())
+                    .totalSeconds(board.focusSecondsOf(r.getUserId()))
+                    .previousRank(board.previousRankOf(r.getUserId()))
+                    .build());
+        }
+        byte[] payload = LeaderboardArchiveCodec.encode(rows, board.getPreviousRanks() != null);
+        archiveRepository.save(LeaderboardArchive.builder()
+                .periodKey(periodKey)
+                .period(period)
+                .metric(metric.getId())
+                .entryCount(rows.size())
+                .payload(payload)
+                .build());
+        log.info("[LeaderboardArchiveService] Archived {}: {} users in {} bytes", periodKey, rows.size(), payload.length);
+    }
+
+    /** First day of a period from the date part of its key, or null if it does not parse. */
+    private static LocalDate parseStart(String period, String value) {
+        try {
+            return "monthly".equals(period) ? YearMonth.parse(value).atDay(1) : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
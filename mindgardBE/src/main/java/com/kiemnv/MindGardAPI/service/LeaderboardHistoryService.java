@@ -0,0 +1,138 @@
+package com.kiemnv.MindGardAPI.service;
+
+import com.kiemnv.MindGardAPI.entity.LeaderboardArchive;
+import com.kiemnv.MindGardAPI.leaderboard.FrozenBoard;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardArchiveCodec;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardMetric;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardRegion;
+import com.kiemnv.MindGardAPI.leaderboard.MetricScoreAggregator;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardRow;
+import com.kiemnv.MindGardAPI.leaderboard.LongIntHashMap;
+import com.kiemnv.MindGardAPI.repository.LeaderboardArchiveRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Boards of closed periods, decoded from leaderboard_archives or computed on first request
+ * from the daily rollup, then frozen.
+ * Concurrent first requests for the same key share one computation. Boards are never
+ * invalidated; only the least recently used ones are dropped when the cache is full.
+ * The exception are provisional boards of periods still in their grace window, which are
+ * replaced on the first request after the period has closed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeaderboardHistoryService {
+
+    private static final int MAX_BOARDS = 48;
+
+    private final FocusRollupService focusRollupService;
+    private final LeaderboardArchiveRepository archiveRepository;
+
+    /** Keys whose cached board was computed before its period closed */
+    private final Set<String> provisional = ConcurrentHashMap.newKeySet();
+    private final Map<String, CompletableFuture<FrozenBoard>> boards = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<FrozenBoard>> eldest) {
+                    return size() > MAX_BOARDS;
+                }
+            });
+
+    /**
+     * Frozen board of a closed period, computing it if needed.
+     * @param region   regional board to compute, or null for the global one
+     * @param current  inclusive {startDay, endDay} of the period
+     * @param previous inclusive {startDay, endDay} of the period before it (for trends)
+     * @param open     the period is still in its grace window: late sessions may still change it
+     */
+    public FrozenBoard board(String periodKey, LeaderboardMetric metric, LeaderboardRegion region,
+                             LocalDate[] current, LocalDate[] previous, boolean open) {
+        if (!open && provisional.remove(periodKey)) {
+            boards.remove(periodKey);
+            log.info("[LeaderboardHistoryService] {} closed, recomputing its provisional board", periodKey);
+        }
+        CompletableFuture<FrozenBoard> mine = new CompletableFuture<>();
+        CompletableFuture<FrozenBoard> existing = boards.putIfAbsent(periodKey, mine);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+        if (open) provisional.add(periodKey);
+        try {
+            FrozenBoard board = compute(periodKey, metric, region, current, previous);
+            mine.complete(board);
+            return board;
+        } catch (RuntimeException e) {
+            boards.remove(periodKey, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /** Frozen board of a key if it is already cached and computed. */
+    public FrozenBoard peek(String periodKey) {
+        CompletableFuture<FrozenBoard> future = boards.get(periodKey);
+        return future != null && future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    private FrozenBoard compute(String periodKey, LeaderboardMetric metric, LeaderboardRegion region,
+                                LocalDate[] current, LocalDate[] previous) {
+        long start = System.currentTimeMillis();
+        Optional<LeaderboardArchive> archive = archiveRepository.findById(periodKey);
+        if (archive.isPresent()) {
+            FrozenBoard board = fromArchive(periodKey, archive.get().getPayload());
+            log.info("[LeaderboardHistoryService] Decoded archived {} with {} users in {}ms",
+                    periodKey, board.size(), System.currentTimeMillis() - start);
+            return board;
+        }
+
+        Map<String, LocalDate[]> ranges = new LinkedHashMap<>();
+        ranges.put("current", current);
+        ranges.put("previous", previous);
+        MetricScoreAggregator aggregated = focusRollupService.aggregate(region, current[1], ranges);
+
+        // Streak is only known as of the period's last day, so the previous period has no comparable rank
+        LongIntHashMap previousRanks = metric != LeaderboardMetric.STREAK
+                ? LongIntHashMap.ranksOf(aggregated.scores(metric, "previous"))
+                : null;
+        FrozenBoard board = FrozenBoard.of(periodKey, aggregated.scores(metric, "current"), previousRanks,
+                aggregated.scores(LeaderboardMetric.FOCUS, "current"));
+        log.info("[LeaderboardHistoryService] Froze {} with {} users in {}ms",
+                periodKey, board.size(), System.currentTimeMillis() - start);
+        return board;
+    }
+
+    /** Archived rows are stored in rank order, so they fill the board's arrays directly. */
+    private FrozenBoard fromArchive(String periodKey, byte[] payload) {
+        List<LeaderboardRow> rows = LeaderboardArchiveCodec.decode(payload);
+        long[] userIds = new long[rows.size()];
+        long[] scores = new long[rows.size()];
+        long[] focusSeconds = new long[rows.size()];
+        LongIntHashMap previousRanks = LeaderboardArchiveCodec.hasPreviousRanks(payload) ? new LongIntHashMap(rows.size()) : null;
+        for (int i = 0; i < rows.size(); i++) {
+            LeaderboardRow row = rows.get(i);
+            userIds[i] = row.getUserId();
+            scores[i] = row.getScore();
+            focusSeconds[i] = row.getTotalSeconds() != null ? row.getTotalSeconds() : 0L;
+            if (previousRanks != null && row.getPreviousRank() != null) previousRanks.put(row.getUserId(), row.getPreviousRank());
+        }
+        return new FrozenBoard(periodKey, userIds, scores, focusSeconds, previousRanks);
+    }
+}
@@ -0,0 +1,54 @@
+package com.kiemnv.MindGardAPI.service;
+
+import com.kiemnv.MindGardAPI.repository.FocusRoomParticipantRepository;
+import com.kiemnv.MindGardAPI.repository.FocusRoomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Member-id sets of small leaderboard scopes (focus rooms), cached briefly.
+ * Scope boards are a subset selection over the period's RankIndex, so serving one
+ * costs a cache hit plus O(k log k) for k members, without touching sessions or the rollup.
+ * Rooms have no membership write path that could evict, so entries simply expire.
+ */
+@Component
+@RequiredArgsConstructor
+public class LeaderboardMemberCache {
+
+    private static final int MAX_CACHED_SETS = 10_000;
+    private static final long TTL_MS = 60_000;
+
+    private final FocusRoomRepository focusRoomRepository;
+    private final FocusRoomParticipantRepository participantRepository;
+
+    private final Map<String, Members> cache = new ConcurrentHashMap<>();
+
+    private record Members(Set<Long> userIds, long loadedAt) {
+    }
+
+    /** Host and everyone who has joined the room; null when the room does not exist. */
+    @Transactional(readOnly = true)
+    public Set<Long> roomMembers(Long roomId) {
+        String key = "room:" + roomId;
+        Members cached = cache.get(key);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt() < TTL_MS) return cached.userIds();
+
+        Set<Long> ids = focusRoomRepository.findById(roomId)
+                .map(room -> {
+                    Set<Long> members = new HashSet<>(participantRepository.findUserIdsByRoomId(roomId));
+                    members.add(room.getHostUser().getId());
+                    return Set.copyOf(members);
+                })
+                .orElse(null);
+        if (ids == null) return null;
+        if (cache.size() >= MAX_CACHED_SETS) cache.clear();
+        cache.put(key, new Members(ids, System.currentTimeMillis()));
+        return ids;
+    }
+}
@@ -0,0 +1,51 @@
+package com.kiemnv.MindGardAPI.service;
+
+import com.kiemnv.MindGardAPI.leaderboard.ProfileCard;
+import com.kiemnv.MindGardAPI.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Profile cards for leaderboard rows, so rendering a board does not load User entities.
+ * Evicted on profile edits and on write-through (level changes with XP).
+ */
+@Component
+@RequiredArgsConstructor
+public class LeaderboardProfileCache {
+
+    private static final int MAX_PROFILES = 50_000;
+
+    private final UserRepository userRepository;
+    private final Map<Long, ProfileCard> cards = new ConcurrentHashMap<>();
+
+    /** Cards for the given users; misses are loaded with a single primary-key lookup. */
+    public Map<Long, ProfileCard> getAll(Collection<Long> userIds) {
+        Map<Long, ProfileCard> out = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : userIds) {
+            ProfileCard card = cards.get(id);
+            if (card != null) out.put(id, card);
+            else missing.add(id);
+        }
+        if (!missing.isEmpty()) {
+            if (cards.size() + missing.size() > MAX_PROFILES) cards.clear();
+            userRepository.findAllById(missing).forEach(user -> {
+                ProfileCard card = ProfileCard.of(user);
+                cards.put(user.getId(), card);
+                out.put(user.getId(), card);
+            });
+        }
+        return out;
+    }
+
+    public void evict(Long userId) {
+        if (userId != null) cards.remove(userId);
+    }
+}
@@ -0,0 +1,167 @@
+package com.kiemnv.MindGardAPI.service;
+
+import com.kiemnv.MindGardAPI.leaderboard.RankIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Per-period-key {@link RankIndex} registry.
+ * Indexes are built on first use (or replaced by LeaderboardScheduler) and
+ * updated in place by the write-through path. Keys whose persisted
+ * current_rank column is behind the index are tracked as dirty and flushed lazily.
+ * Concurrent first reads of a key share one load, which runs outside the map,
+ * so a slow rollup read never blocks other keys.
+ */
+@Slf4j
+@Component
+public class LeaderboardRankCache {
+
+    /** Hard cap on cached period keys; least recently used keys are dropped first. */
+    private static final int MAX_PERIOD_KEYS = 96;
+
+    private final Map<String, Holder> indexes = new ConcurrentHashMap<>();
+    private final Set<String> dirtyKeys = ConcurrentHashMap.newKeySet();
+    /** Dirty indexes dropped by eviction, held until their ranks are flushed */
+    private final Map<String, RankIndex> evictedDirty = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    private static final class Holder {
+        final CompletableFuture<RankIndex> index;
+        volatile long lastAccess = System.nanoTime();
+
+        Holder(CompletableFuture<RankIndex> index) {
+            this.index = index;
+        }
+    }
+
+    /** Get the index for a period key, building it with the loader (userId -> seconds) on a miss. */
+    public RankIndex get(String periodKey, Supplier<Map<Long, Long>> loader) {
+        Holder mine = new Holder(new CompletableFuture<>());
+        Holder holder = indexes.putIfAbsent(periodKey, mine);
+        if (holder != null) {
+            holder.lastAccess = System.nanoTime();
+            try {
+                return holder.index.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+        try {
+            long start = System.currentTimeMillis();
+            RankIndex index = RankIndex.of(loader.get());
+            log.info("[LeaderboardRankCache] Loaded {} with {} users in {}ms",
+                    periodKey, index.size(), System.currentTimeMillis() - start);
+            mine.index.complete(index);
+            evictIfNeeded();
+            return index;
+        } catch (RuntimeException e) {
+            indexes.remove(periodKey, mine);
+            mine.index.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /** Get the index for a period key if it is already loaded (null while it is still loading). */
+    public RankIndex peek(String periodKey) {
+        Holder holder = indexes.get(periodKey);
+        if (holder == null || !holder.index.isDone() || holder.index.isCompletedExceptionally()) return null;
+        holder.lastAccess = System.nanoTime();
+        return holder.index.join();
+    }
+
+    /** Swap in a freshly computed index (scheduler run). Persisted ranks are exact afterwards. */
+    public void replace(String periodKey, Map<Long, Long> userScores) {
+        indexes.put(periodKey, new Holder(CompletableFuture.completedFuture(RankIndex.of(userScores))));
+        dirtyKeys.remove(periodKey);
+        evictIfNeeded();
+    }
+
+    /** Drop a loaded index so the next read rebuilds it from the rollup (another instance recomputed it). */
+    public void invalidate(String periodKey) {
+        if (indexes.remove(periodKey) != null) {
+            dirtyKeys.remove(periodKey);
+            bumpVersion(periodKey);
+        }
+    }
+
+    public void markDirty(String periodKey) {
+        dirtyKeys.add(periodKey);
+    }
+
+    /**
+     * Board version of a period key. Write-through moves it only when the top 100 rows change
+     * (who is on them, their order or scores); moves further down leave it as is.
+     */
+    public long version(String periodKey) {
+        AtomicLong version = versions.get(periodKey);
+        return version != null ? version.get() : 0L;
+    }
+
+    public void bumpVersion(String periodKey) {
+        versions.computeIfAbsent(periodKey, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Bump once the surrounding transaction commits, so a reader never caches
+     * pre-commit rows under the new version. Bumps immediately outside a transaction.
+     */
+    public void bumpVersionAfterCommit(String periodKey) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bumpVersion(periodKey);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bumpVersion(periodKey);
+            }
+        });
+    }
+
+    /**
+     * Drain dirty keys with their indexes, including those evicted since the last drain;
+     * callers persist current_rank for each returned key.
+     */
+    public Map<String, RankIndex> drainDirty() {
+        Map<String, RankIndex> drained = new HashMap<>();
+        for (String key : evictedDirty.keySet()) {
+            RankIndex index = evictedDirty.remove(key);
+            if (index != null) drained.put(key, index);
+        }
+        for (String key : dirtyKeys) {
+            if (!dirtyKeys.remove(key)) continue;
+            RankIndex index = peek(key);
+            if (index != null) drained.put(key, index); // reloaded since eviction: the live index wins
+        }
+        return drained;
+    }
+
+    private void evictIfNeeded() {
+        while (indexes.size() > MAX_PERIOD_KEYS) {
+            indexes.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                    .map(Map.Entry::getKey)
+                    .ifPresent(key -> {
+                        Holder evicted = indexes.remove(key);
+                        if (dirtyKeys.remove(key) && evicted != null && evicted.index.isDone()
+                                && !evicted.index.isCompletedExceptionally()) {
+                            // Keep it until the next flush, so its ranks still reach current_rank
+                            evictedDirty.put(key, evicted.index.join());
+                        }
+                        log.info("[LeaderboardRankCache] Evicted {}", key);
+                    });
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.kiemnv.MindGardAPI.service;
+
+import com.kiemnv.MindGardAPI.entity.Settings;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardRegion;
+import com.kiemnv.MindGardAPI.repository.SettingsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * userId -> leaderboard region, from the timezone in the user's settings.
+ * Cached so the session write path does not read settings every time; evicted on settings update.
+ */
+@Component
+@RequiredArgsConstructor
+public class LeaderboardRegionResolver {
+
+    private static final int MAX_CACHED_USERS = 50_000;
+
+    private final SettingsRepository settingsRepository;
+    private final Map<Long, LeaderboardRegion> regions = new ConcurrentHashMap<>();
+
+    public LeaderboardRegion regionOf(Long userId) {
+        LeaderboardRegion cached = regions.get(userId);
+        if (cached != null) return cached;
+        LeaderboardRegion region = LeaderboardRegion.ofTimezone(settingsRepository.findByUserId(userId)
+                .map(Settings::getTimezone)
+                .orElse(null));
+        if (regions.size() >= MAX_CACHED_USERS) regions.clear();
+        regions.put(userId, region);
+        return region;
+    }
+
+    public void evict(Long userId) {
+        regions.remove(userId);
+    }
+}
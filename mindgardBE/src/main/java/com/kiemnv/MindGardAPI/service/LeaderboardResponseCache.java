@@ -0,0 +1,69 @@
+package com.kiemnv.MindGardAPI.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kiemnv.MindGardAPI.dto.response.LeaderboardEntryDto;
+import com.kiemnv.MindGardAPI.leaderboard.RankIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Global boards kept as ready-to-send JSON, tagged with the period's board version
+ * from {@link LeaderboardRankCache}. A snapshot is rebuilt only after the version moves.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LeaderboardResponseCache {
+
+    /** Distinguishes versions across restarts, since version counters start again at 0. */
+    private static final String BOOT_ID = Long.toString(System.currentTimeMillis(), 36);
+
+    /** Past dates can be requested freely; cap how many boards are held. */
+    private static final int MAX_SNAPSHOTS = 64;
+
+    private final LeaderboardRankCache rankCache;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private record Snapshot(long version, String entriesJson) {
+    }
+
+    /**
+     * Weak ETag for a viewer of a period's board. Pure in-memory, no database access.
+     * The version only follows the top 100, so the viewer's own rank and score are part of the tag.
+     */
+    public String etag(String periodKey, Long viewerId) {
+        return "W/\"" + periodKey + "." + BOOT_ID + "." + rankCache.version(periodKey)
+                + (viewerId != null ? ".u" + viewerId + viewerPlacement(periodKey, viewerId) : "") + "\"";
+    }
+
+    private String viewerPlacement(String periodKey, long viewerId) {
+        RankIndex index = rankCache.peek(periodKey);
+        Integer rank = index != null ? index.rankOf(viewerId) : null;
+        return rank != null ? ".r" + rank + "." + index.scoreOf(viewerId) : "";
+    }
+
+    /** Pre-serialized entries array of the board, rebuilt with the builder when stale. */
+    public String entriesJson(String periodKey, Supplier<List<LeaderboardEntryDto>> builder) {
+        long version = rankCache.version(periodKey);
+        Snapshot snapshot = snapshots.get(periodKey);
+        if (snapshot != null && snapshot.version() == version) return snapshot.entriesJson();
+
+        // Version is read before building, so a concurrent change leaves this snapshot stale
+        try {
+            String json = objectMapper.writeValueAsString(builder.get());
+            if (snapshots.size() >= MAX_SNAPSHOTS) snapshots.clear();
+            snapshots.put(periodKey, new Snapshot(version, json));
+            log.debug("[LeaderboardResponseCache] Rebuilt {} at version {}", periodKey, version);
+            return json;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize leaderboard " + periodKey, e);
+        }
+    }
+}
@@ -1,11 +1,24 @@
 package com.kiemnv.MindGardAPI.service;
 
+import com.kiemnv.MindGardAPI.config.LeaderboardProperties;
 import com.kiemnv.MindGardAPI.dto.response.LeaderboardEntryDto;
 import com.kiemnv.MindGardAPI.entity.LeaderboardEntry;
 import com.kiemnv.MindGardAPI.entity.User;
+import com.kiemnv.MindGardAPI.entity.UserSeasonFocus;
+import com.kiemnv.MindGardAPI.dto.response.LeaderboardResponseDto;
+import com.kiemnv.MindGardAPI.leaderboard.FrozenBoard;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardCursor;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardMetric;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardRegion;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardSeason;
+import com.kiemnv.MindGardAPI.leaderboard.ProfileCard;
+import com.kiemnv.MindGardAPI.leaderboard.RankIndex;
+import com.kiemnv.MindGardAPI.leaderboard.RankView;
+import com.kiemnv.MindGardAPI.leaderboard.RankedScore;
 import com.kiemnv.MindGardAPI.repository.LeaderboardRepository;
-import com.kiemnv.MindGardAPI.repository.PomodoroRepository;
+import com.kiemnv.MindGardAPI.repository.UserDailyFocusRepository;
 import com.kiemnv.MindGardAPI.repository.UserRepository;
+import com.kiemnv.MindGardAPI.repository.UserSeasonFocusRepository;
 import com.kiemnv.MindGardAPI.scheduler.LeaderboardScheduler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,11 +27,19 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -27,36 +48,63 @@ import java.util.stream.Collectors;
 public class LeaderboardService {
 
     private final LeaderboardRepository leaderboardRepository;
-    private final PomodoroRepository pomodoroRepository;
+    private final UserDailyFocusRepository userDailyFocusRepository;
     private final FriendService friendService;
     private final UserRepository userRepository;
+    private final LeaderboardRankCache rankCache;
+    private final LeaderboardProfileCache profileCache;
+    private final FocusRollupService focusRollupService;
+    private final LeaderboardHistoryService historyService;
+    private final LeaderboardMemberCache memberCache;
+    private final LeaderboardRegionResolver regionResolver;
+    private final UserSeasonFocusRepository userSeasonFocusRepository;
+    private final LeaderboardProperties leaderboardProperties;
+
+    /** Rows on the stored (and frozen) global board. */
+    private static final int BOARD_SIZE = 100;
+    /**
+     * How long after its last day a period still takes late sessions (outbox lag, sessions closed by
+     * the running-session timer, offline clients syncing) before it counts as closed and freezes.
+     */
+    private static final Duration CLOSE_GRACE = Duration.ofHours(6);
 
     /**
      * Get cached leaderboard from leaderboard_entries table.
      * Data is precomputed by LeaderboardScheduler every 5 minutes.
+     * Closed periods are served from a frozen board computed on first request.
+     * A non-null region selects that region's board (its own day boundaries); friends are always global.
+     * All-time and season boards have no stored rows and are read from their rank index.
      */
     @Transactional(readOnly = true)
-    public List<LeaderboardEntryDto> getCachedLeaderboard(String period, LocalDate date, String scope, Long userId) {
-        String periodKey = LeaderboardScheduler.buildPeriodKey(period, date);
+    public List<LeaderboardEntryDto> getCachedLeaderboard(String period, LocalDate date, LeaderboardMetric metric,
+                                                          LeaderboardRegion region, String scope, Long userId) {
+        String periodKey = LeaderboardScheduler.boardKey(period, date, metric, region);
         log.info("[LeaderboardService] getCachedLeaderboard: periodKey={}, scope={}, userId={}", periodKey, scope, userId);
 
-        List<LeaderboardEntry> entries;
-
         if ("friends".equals(scope) && userId != null) {
-            List<Long> friendIds = getFriendUserIds(userId);
-            friendIds.add(userId);
-            entries = leaderboardRepository.findByPeriodKeyAndUserIdIn(periodKey, friendIds);
+            // Cached friend-id set intersected with the period's ranking, re-ranked within friends
+            Set<Long> members = new HashSet<>(friendService.friendIds(userId));
+            members.add(userId);
+            String globalKey = LeaderboardScheduler.boardKey(period, date, metric, null);
+            List<RankedScore> rows = rankIndexFor(period, date, metric, null).subset(members);
+            log.info("[LeaderboardService] Friends scope: {} entries for {} friends", rows.size(), members.size() - 1);
+            return toDtos(globalKey, rows);
+        }
 
-            // Re-rank within friends scope
-            for (int i = 0; i < entries.size(); i++) {
-                entries.get(i).setRank(i + 1);
-            }
-            log.info("[LeaderboardService] Friends scope: {} entries for {} friends", entries.size(), friendIds.size());
-        } else {
-            entries = leaderboardRepository.findByPeriodKeyOrderByRankAsc(periodKey);
-            log.info("[LeaderboardService] Global scope: {} entries", entries.size());
+        if (isClosed(period, date, region)) {
+            List<LeaderboardEntryDto> dtos = toDtos(periodKey, rankIndexFor(period, date, metric, region).range(0, BOARD_SIZE));
+            log.info("[LeaderboardService] Closed period: {} entries for periodKey={}", dtos.size(), periodKey);
+            return dtos;
+        }
+
+        if (LeaderboardScheduler.isStanding(period)) {
+            return toDtos(periodKey, rankIndexFor(period, date, metric, region).range(0, BOARD_SIZE));
         }
 
+        List<LeaderboardEntry> entries = leaderboardRepository.findByPeriodKeyOrderByRankAsc(periodKey);
+        applyLiveRanks(periodKey, entries);
+        log.info("[LeaderboardService] Global scope: {} entries", entries.size());
+
         List<LeaderboardEntryDto> dtos = entries.stream()
                 .map(this::toDto)
                 .collect(Collectors.toList());
@@ -70,14 +118,35 @@ public class LeaderboardService {
      * Always returns an entry (even with 0 minutes) so the pinned row always shows.
      */
     @Transactional(readOnly = true)
-    public LeaderboardEntryDto getCurrentUserEntry(String period, LocalDate date, Long userId) {
-        String periodKey = LeaderboardScheduler.buildPeriodKey(period, date);
-        return leaderboardRepository.findByPeriodKeyAndUserId(periodKey, userId)
-                .map(this::toDto)
+    public LeaderboardEntryDto getCurrentUserEntry(String period, LocalDate date, LeaderboardMetric metric,
+                                                   LeaderboardRegion region, Long userId) {
+        String periodKey = LeaderboardScheduler.boardKey(period, date, metric, region);
+        Optional<LeaderboardEntry> stored = isClosed(period, date, region)
+                ? Optional.empty() // frozen board only, stored rows of a closed period may be stale
+                : leaderboardRepository.findByPeriodKeyAndUserId(periodKey, userId);
+        return stored
+                .map(entry -> {
+                    RankIndex index = rankCache.peek(periodKey);
+                    if (index != null) {
+                        Integer liveRank = index.rankOf(userId);
+                        if (liveRank != null) entry.setRank(liveRank);
+                    }
+                    return toDto(entry);
+                })
                 .orElseGet(() -> {
                     // User has no entry yet — return a default with 0 minutes
                     User user = userRepository.findById(userId).orElse(null);
                     if (user == null) return null;
+                    // Ranked below the stored board: rank and score come from the index
+                    RankView index = rankIndexFor(period, date, metric, region);
+                    Integer indexRank = index.rankOf(userId);
+                    if (indexRank != null) {
+                        FrozenBoard frozen = historyService.peek(periodKey);
+                        return toDto(ProfileCard.of(user), new RankedScore(userId, index.scoreOf(userId), indexRank),
+                                frozen != null ? frozen.previousRankOf(userId) : null,
+                                frozen != null ? frozen.trendOf(userId) : null,
+                                frozen != null ? frozen.focusMinutesOf(userId) : null, periodKey);
+                    }
                     String displayName = user.getFirstName() != null && user.getLastName() != null
                             ? (user.getFirstName() + " " + user.getLastName()).trim()
                             : (user.getFirstName() != null ? user.getFirstName()
@@ -92,6 +161,8 @@ public class LeaderboardService {
                             .bio(user.getBio())
                             .level(user.getLevel() != null ? user.getLevel() : 1)
                             .totalMinutes(0L)
+                            .metric(metric.getId())
+                            .score(0L)
                             .rank(null)
                             .trend(null)
                             .previousRank(null)
@@ -100,39 +171,159 @@ public class LeaderboardService {
     }
 
     /**
-     * Write-through cache: immediately update a user's leaderboard entry
-     * after they complete a Pomodoro session.
-     * Updates daily, weekly, and monthly for the current date.
+     * Focus-room board: the period's ranking restricted to the room's members, re-ranked 1..k.
+     * Returns null when the room does not exist.
+     */
+    @Transactional(readOnly = true)
+    public LeaderboardResponseDto getRoomLeaderboard(String period, LocalDate date, LeaderboardMetric metric, Long roomId) {
+        Set<Long> members = memberCache.roomMembers(roomId);
+        if (members == null) return null;
+        String periodKey = LeaderboardScheduler.boardKey(period, date, metric, null);
+        List<RankedScore> rows = rankIndexFor(period, date, metric, null).subset(members);
+        return LeaderboardResponseDto.builder()
+                .entries(toDtos(periodKey, rows))
+                .totalParticipants(members.size())
+                .build();
+    }
+
+    /**
+     * Rank-around-me: the user's row plus up to {@code window} rows on each side,
+     * read from the full ranked population of the period in O(log n + window).
+     */
+    @Transactional(readOnly = true)
+    public LeaderboardResponseDto getRankWindow(String period, LocalDate date, LeaderboardMetric metric,
+                                                LeaderboardRegion region, Long userId, int window) {
+        RankView index = rankIndexFor(period, date, metric, region);
+        Integer rank = index.rankOf(userId);
+        List<RankedScore> rows = rank == null
+                ? List.of()
+                : index.range(Math.max(0, rank - 1 - window), 2 * window + 1);
+        return LeaderboardResponseDto.builder()
+                .entries(toDtos(LeaderboardScheduler.boardKey(period, date, metric, region), rows))
+                .totalParticipants(index.size())
+                .build();
+    }
+
+    /**
+     * Keyset page over the full ranked population of the period.
+     * The cursor is the (score, userId) of the last row of the previous page.
+     */
+    @Transactional(readOnly = true)
+    public LeaderboardResponseDto getRankPage(String period, LocalDate date, LeaderboardMetric metric,
+                                              LeaderboardRegion region, String cursor, int limit) {
+        RankView index = rankIndexFor(period, date, metric, region);
+        List<RankedScore> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = index.range(0, limit + 1);
+        } else {
+            long[] anchor = LeaderboardCursor.decode(cursor);
+            rows = index.after(anchor[0], anchor[1], limit + 1);
+        }
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            nextCursor = LeaderboardCursor.encode(rows.get(rows.size() - 1));
+        }
+        return LeaderboardResponseDto.builder()
+                .entries(toDtos(LeaderboardScheduler.boardKey(period, date, metric, region), rows))
+                .nextCursor(nextCursor)
+                .totalParticipants(index.size())
+                .build();
+    }
+
+    /** Live top-N of the period straight from the rank index (used by the SSE stream). */
+    @Transactional(readOnly = true)
+    public List<LeaderboardEntryDto> getLiveTop(String period, LocalDate date, int limit) {
+        return toDtos(LeaderboardScheduler.buildPeriodKey(period, date),
+                rankIndexFor(period, date, LeaderboardMetric.FOCUS, null).range(0, limit));
+    }
+
+    /**
+     * Write-through cache: update a user's leaderboard entry after they record a session.
+     * Called from LeaderboardUpdateQueue once the session has committed.
+     * Updates daily, weekly, and monthly for the current date, on the global board and on the
+     * user's regional board (with the region's own "today").
+     * Only the focus board is written through; other metrics refresh with the scheduler run.
      */
     @Transactional
-    public void updateUserLeaderboard(User user) {
+    public void updateUserLeaderboard(Long userId) {
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) return;
         LocalDate today = LocalDate.now();
         log.info("[LeaderboardService] Write-through update for user {} ({})", user.getId(), user.getUsername());
+        profileCache.evict(user.getId()); // level may have changed with the session's XP
+
+        LeaderboardRegion region = regionResolver.regionOf(user.getId());
+        LocalDate regionalToday = region.today();
+        for (String period : new String[]{"daily", "weekly", "monthly"}) {
+            updateUserForPeriod(user, period, today, null);
+            updateUserForPeriod(user, period, regionalToday, region);
+        }
+        updateStandingBoards(user.getId(), regionalToday);
+    }
+
+    /**
+     * All-time and season boards move by the user's running totals in user_season_focus,
+     * never by re-summing history. Boards not loaded yet pick the totals up when they load.
+     */
+    private void updateStandingBoards(Long userId, LocalDate day) {
+        moveStanding("alltime", userId, () -> userSeasonFocusRepository.findSeconds(userId, UserSeasonFocus.ALLTIME));
+        for (LeaderboardSeason season : leaderboardProperties.seasonsOn(day)) {
+            moveStanding(season.period(), userId, () -> userSeasonFocusRepository.findSeconds(userId, season.getId()));
+        }
+    }
+
+    private void moveStanding(String period, Long userId, Supplier<Long> total) {
+        String periodKey = LeaderboardScheduler.buildPeriodKey(period, null);
+        RankIndex index = rankCache.peek(periodKey);
+        if (index == null) return;
+        Long seconds = total.get();
+        Integer oldRank = index.rankOf(userId);
+        boolean moved = seconds != null && seconds >= 60 ? index.put(userId, seconds) : index.remove(userId);
+        if (moved && onBoard(oldRank, index.rankOf(userId))) rankCache.bumpVersionAfterCommit(periodKey);
+    }
 
-        updateUserForPeriod(user, "daily", today);
-        updateUserForPeriod(user, "weekly", today);
-        updateUserForPeriod(user, "monthly", today);
+    /**
+     * Whether a user moving from oldRank to newRank (null when unranked) changes the top BOARD_SIZE rows.
+     * Moves below the board leave its users, order and scores untouched.
+     */
+    private static boolean onBoard(Integer oldRank, Integer newRank) {
+        return (oldRank != null && oldRank <= BOARD_SIZE) || (newRank != null && newRank <= BOARD_SIZE);
     }
 
-    private void updateUserForPeriod(User user, String period, LocalDate date) {
-        String periodKey = LeaderboardScheduler.buildPeriodKey(period, date);
+    private void updateUserForPeriod(User user, String period, LocalDate date, LeaderboardRegion region) {
+        String periodKey = LeaderboardScheduler.boardKey(period, date, LeaderboardMetric.FOCUS, region);
         LocalDateTime[] range = getDateRange(period, date);
+        RankIndex index = rankCache.get(periodKey, () -> loadPeriodScores(region, range));
 
-        // Get this user's total seconds for the period
-        Long totalSeconds = pomodoroRepository.sumDurationSecondsByUserIdAndDateRange(
-                user.getId(), range[0], range[1]);
+        // Get this user's total seconds for the period (at most 31 rollup rows)
+        Long totalSeconds = region == null
+                ? userDailyFocusRepository.sumSecondsByUserIdAndDayRange(
+                        user.getId(), range[0].toLocalDate(), range[1].toLocalDate())
+                : userDailyFocusRepository.sumSecondsByUserIdAndRegionAndDayRange(
+                        user.getId(), region.getId(), range[0].toLocalDate(), range[1].toLocalDate());
         if (totalSeconds == null) totalSeconds = 0L;
+        Integer oldRank = index.rankOf(user.getId());
 
         if (totalSeconds < 60) {
             // User has no qualifying time, remove their entry if exists
             Optional<LeaderboardEntry> existing = leaderboardRepository.findByPeriodKeyAndUserId(periodKey, user.getId());
             existing.ifPresent(e -> leaderboardRepository.delete(e));
-            reRankPeriod(periodKey);
+            if (index.remove(user.getId())) {
+                rankCache.markDirty(periodKey);
+                if (onBoard(oldRank, null)) rankCache.bumpVersionAfterCommit(periodKey);
+            }
             return;
         }
 
         long totalMinutes = totalSeconds / 60;
 
+        // O(log n) rank update; other users' current_rank is persisted lazily
+        if (index.put(user.getId(), totalSeconds)) {
+            rankCache.markDirty(periodKey);
+            if (onBoard(oldRank, index.rankOf(user.getId()))) rankCache.bumpVersionAfterCommit(periodKey);
+        }
+
         // Upsert: find existing or create new
         LeaderboardEntry entry = leaderboardRepository.findByPeriodKeyAndUserId(periodKey, user.getId())
                 .orElse(LeaderboardEntry.builder()
@@ -142,32 +333,138 @@ public class LeaderboardService {
                         .createdAt(LocalDateTime.now())
                         .build());
 
+        entry.setMetric(LeaderboardMetric.FOCUS.getId());
+        entry.setScore(totalSeconds);
         entry.setTotalSeconds(totalSeconds);
         entry.setTotalMinutes(totalMinutes);
+        entry.setRank(index.rankOf(user.getId()));
         entry.setUpdatedAt(LocalDateTime.now());
         leaderboardRepository.save(entry);
 
-        // Re-rank all entries for this period
-        reRankPeriod(periodKey);
+        log.info("[LeaderboardService] Write-through: user={}, period={}, totalMin={}, rank={}",
+                user.getId(), periodKey, totalMinutes, entry.getRank());
+    }
+
+    /**
+     * Persist current_rank for period keys whose index moved since the last flush.
+     * Only rows whose rank actually changed are written (dirty checking).
+     */
+    @Transactional
+    public void persistDirtyRanks() {
+        for (Map.Entry<String, RankIndex> dirty : rankCache.drainDirty().entrySet()) {
+            String periodKey = dirty.getKey();
+            RankIndex index = dirty.getValue();
+            int changed = 0;
+            for (LeaderboardEntry entry : leaderboardRepository.findByPeriodKeyOrderByRankAsc(periodKey)) {
+                Integer liveRank = index.rankOf(entry.getUser().getId());
+                if (liveRank != null && !liveRank.equals(entry.getRank())) {
+                    entry.setRank(liveRank);
+                    changed++;
+                }
+            }
+            log.debug("[LeaderboardService] Persisted {} rank changes for {}", changed, periodKey);
+        }
+    }
+
+    private RankView rankIndexFor(String period, LocalDate date, LeaderboardMetric metric, LeaderboardRegion region) {
+        LocalDateTime[] range = getDateRange(period, date);
+        String periodKey = LeaderboardScheduler.boardKey(period, date, metric, region);
+        if (LeaderboardScheduler.isStanding(period)) {
+            return rankCache.get(periodKey, () -> loadStandingScores(period));
+        }
+        if (isClosed(period, date, region)) {
+            return frozenBoard(period, date, metric, region);
+        }
+        if (metric == LeaderboardMetric.FOCUS) {
+            return rankCache.get(periodKey, () -> loadPeriodScores(region, range));
+        }
+        return rankCache.get(periodKey, () -> loadMetricScores(metric, region, period, range));
+    }
+
+    /** Population of a non-focus metric for one period (cold start or a past period). */
+    private Map<Long, Long> loadMetricScores(LeaderboardMetric metric, LeaderboardRegion region, String period,
+                                             LocalDateTime[] range) {
+        LocalDate endDay = range[1].toLocalDate();
+        LocalDate today = today(region);
+        LocalDate asOf = endDay.isBefore(today) ? endDay : today;
+        return focusRollupService.aggregate(region, asOf, Map.of(period, new LocalDate[]{range[0].toLocalDate(), endDay}))
+                .scores(metric, period);
+    }
+
+    /** Full ranked population of a period (userId -> seconds), used to seed the rank index. */
+    private Map<Long, Long> loadPeriodScores(LeaderboardRegion region, LocalDateTime[] range) {
+        Map<Long, Long> scores = new HashMap<>();
+        List<Object[]> rows = region == null
+                ? userDailyFocusRepository.sumSecondsGroupedByUser(range[0].toLocalDate(), range[1].toLocalDate())
+                : userDailyFocusRepository.sumSecondsGroupedByUserInRegion(region.getId(), range[0].toLocalDate(), range[1].toLocalDate());
+        for (Object[] row : rows) {
+            Long totalSeconds = (Long) row[1];
+            if (totalSeconds == null || totalSeconds < 60) continue;
+            scores.put((Long) row[0], totalSeconds);
+        }
+        return scores;
+    }
+
+    /** Population of an all-time or season board (userId -> seconds), one row per user. */
+    private Map<Long, Long> loadStandingScores(String period) {
+        String seasonId = "alltime".equals(period) ? UserSeasonFocus.ALLTIME : period.substring("season:".length());
+        List<Object[]> rows = userSeasonFocusRepository.findScoresBySeasonId(seasonId);
+        Map<Long, Long> scores = new HashMap<>();
+        for (Object[] row : rows) scores.put((Long) row[0], (Long) row[1]);
+        return scores;
+    }
+
+    /** Overlay in-memory ranks on loaded entries, since persisted ranks may lag behind. */
+    private void applyLiveRanks(String periodKey, List<LeaderboardEntry> entries) {
+        RankIndex index = rankCache.peek(periodKey);
+        if (index == null) return;
+        for (LeaderboardEntry entry : entries) {
+            Integer liveRank = index.rankOf(entry.getUser().getId());
+            if (liveRank != null) entry.setRank(liveRank);
+        }
+        entries.sort(Comparator.comparing(LeaderboardEntry::getRank,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+    }
 
-        log.info("[LeaderboardService] Write-through: user={}, period={}, totalMin={}",
-                user.getId(), periodKey, totalMinutes);
+    /**
+     * A period is closed once its last day is over (in the region's zone) plus CLOSE_GRACE;
+     * its board can no longer change.
+     */
+    public boolean isClosed(String period, LocalDate date, LeaderboardRegion region) {
+        if (LeaderboardScheduler.isStanding(period)) return false;
+        LocalDateTime closesAt = getDateRange(period, date)[1].toLocalDate().plusDays(1).atStartOfDay().plus(CLOSE_GRACE);
+        LocalDateTime now = region != null ? LocalDateTime.now(region.getZone()) : LocalDateTime.now();
+        return !now.isBefore(closesAt);
     }
 
     /**
-     * Re-rank all entries for a period key by totalSeconds descending.
+     * Frozen board of a closed period, from its archive or computed once from the rollup.
+     * A period still in its grace window (e.g. the previous period for trends) gets a provisional
+     * board that is computed again once the period closes.
      */
-    private void reRankPeriod(String periodKey) {
-        List<LeaderboardEntry> all = leaderboardRepository.findByPeriodKeyOrderByRankAsc(periodKey);
-        // Sort by totalSeconds desc (the query sorts by rank, we need to re-sort by score)
-        all.sort((a, b) -> Long.compare(
-                b.getTotalSeconds() != null ? b.getTotalSeconds() : 0,
-                a.getTotalSeconds() != null ? a.getTotalSeconds() : 0));
+    public FrozenBoard frozenBoard(String period, LocalDate date, LeaderboardMetric metric, LeaderboardRegion region) {
+        LocalDateTime[] range = getDateRange(period, date);
+        LocalDateTime[] previous = getDateRange(period, previousDate(period, date));
+        return historyService.board(LeaderboardScheduler.boardKey(period, date, metric, region), metric, region,
+                new LocalDate[]{range[0].toLocalDate(), range[1].toLocalDate()},
+                new LocalDate[]{previous[0].toLocalDate(), previous[1].toLocalDate()},
+                !isClosed(period, date, region));
+    }
 
-        for (int i = 0; i < all.size(); i++) {
-            all.get(i).setRank(i + 1);
+    /** Current day of a region's boards; the global board follows the server zone. */
+    public static LocalDate today(LeaderboardRegion region) {
+        return region != null ? region.today() : LocalDate.now();
+    }
+
+    public static LocalDate previousDate(String period, LocalDate date) {
+        switch (period.toLowerCase()) {
+            case "weekly":
+                return date.minusWeeks(1);
+            case "monthly":
+                return date.minusMonths(1);
+            default:
+                return date.minusDays(1);
         }
-        leaderboardRepository.saveAll(all);
     }
 
     private LocalDateTime[] getDateRange(String period, LocalDate date) {
@@ -212,23 +509,80 @@ public class LeaderboardService {
                 .bio(user.getBio())
                 .level(user.getLevel() != null ? user.getLevel() : 1)
                 .totalMinutes(entry.getTotalMinutes() != null ? entry.getTotalMinutes() : 0)
+                .metric(entry.getMetric() != null ? entry.getMetric() : LeaderboardMetric.FOCUS.getId())
+                .score(entry.getScore() != null ? entry.getScore() : entry.getTotalSeconds())
                 .rank(entry.getRank())
                 .trend(entry.getTrend())
                 .previousRank(entry.getPreviousRank())
+                .percentile(percentileOf(entry.getPeriodKey(), entry.getTotalSeconds()))
                 .build();
     }
 
-    private List<Long> getFriendUserIds(Long userId) {
-        try {
-            User user = userRepository.findById(userId).orElse(null);
-            if (user == null) return new java.util.ArrayList<>();
-            return friendService.friends(user).stream()
-                    .map(dto -> dto.getId())
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            log.warn("[LeaderboardService] Error getting friends: {}", e.getMessage());
-            return new java.util.ArrayList<>();
+    /**
+     * DTOs for index rows: profiles from the profile cache, and trend/previousRank
+     * from stored entries where the user is on the persisted board.
+     */
+    private List<LeaderboardEntryDto> toDtos(String periodKey, List<RankedScore> rows) {
+        if (rows.isEmpty()) return new ArrayList<>();
+        List<Long> ids = rows.stream().map(RankedScore::getUserId).collect(Collectors.toList());
+        Map<Long, ProfileCard> cards = profileCache.getAll(ids);
+        FrozenBoard frozen = historyService.peek(periodKey);
+        Map<Long, LeaderboardEntry> stored = new HashMap<>();
+        if (frozen == null) {
+            for (LeaderboardEntry entry : leaderboardRepository.findByPeriodKeyAndUserIdIn(periodKey, ids)) {
+                stored.put(entry.getUser().getId(), entry);
+            }
         }
+        List<LeaderboardEntryDto> dtos = new ArrayList<>(rows.size());
+        for (RankedScore row : rows) {
+            ProfileCard card = cards.get(row.getUserId());
+            if (card == null) continue;
+            long userId = row.getUserId();
+            if (frozen != null) {
+                dtos.add(toDto(card, row, frozen.previousRankOf(userId), frozen.trendOf(userId),
+                        frozen.focusMinutesOf(userId), periodKey));
+            } else {
+                LeaderboardEntry entry = stored.get(userId);
+                dtos.add(toDto(card, row,
+                        entry != null ? entry.getPreviousRank() : null,
+                        entry != null ? entry.getTrend() : null,
+                        entry != null ? entry.getTotalMinutes() : null, periodKey));
+            }
+        }
+        return dtos;
+    }
+
+    /** focusMinutes is only used for non-focus boards, where the score is not a duration. */
+    private LeaderboardEntryDto toDto(ProfileCard card, RankedScore row, Integer previousRank, String trend,
+                                      Long focusMinutes, String periodKey) {
+        LeaderboardMetric metric = LeaderboardMetric.ofPeriodKey(periodKey);
+        Long totalMinutes = metric == LeaderboardMetric.FOCUS
+                ? Long.valueOf(row.getScore() / 60)
+                : focusMinutes;
+        return LeaderboardEntryDto.builder()
+                .id(card.getUserId())
+                .userId(card.getUserId())
+                .username(card.getUsername())
+                .displayName(card.getDisplayName())
+                .avatarUrl(card.getAvatarUrl())
+                .bio(card.getBio())
+                .level(card.getLevel())
+                .totalMinutes(totalMinutes)
+                .metric(metric.getId())
+                .score(row.getScore())
+                .rank(row.getRank())
+                .trend(trend)
+                .previousRank(previousRank)
+                .percentile(percentileOf(periodKey, row.getScore()))
+                .build();
+    }
+
+    /** "Top X%" from the period's histogram sketch; null when the period is not indexed or not a focus board. */
+    private Double percentileOf(String periodKey, Long totalSeconds) {
+        if (totalSeconds == null || LeaderboardMetric.ofPeriodKey(periodKey) != LeaderboardMetric.FOCUS) return null;
+        RankView index = rankCache.peek(periodKey);
+        if (index == null) index = historyService.peek(periodKey);
+        return index != null ? index.topPercent(totalSeconds) : null;
     }
 
     // --- Legacy methods (kept for backward compat) ---
@@ -0,0 +1,197 @@
+package com.kiemnv.MindGardAPI.service;
+
+import com.kiemnv.MindGardAPI.dto.response.LeaderboardDeltaDto;
+import com.kiemnv.MindGardAPI.dto.response.LeaderboardEntryDto;
+import com.kiemnv.MindGardAPI.dto.response.LeaderboardResponseDto;
+import com.kiemnv.MindGardAPI.scheduler.LeaderboardScheduler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent leaderboard updates.
+ * Writers never touch subscribers: they only bump the board version in {@link LeaderboardRankCache}.
+ * {@link #publishChanges()} runs on a short fixed delay, so bursts of write-through updates
+ * coalesce into one delta per period. Sends run on a small bounded pool; a subscriber that is
+ * still busy (or rejected) skips deltas and gets a full snapshot once it catches up.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeaderboardStreamService {
+
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60_000L;
+    private static final long HEARTBEAT_MS = 25_000L;
+    private static final int TOP_N = 100;
+
+    private final LeaderboardService leaderboardService;
+    private final LeaderboardRankCache rankCache;
+
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, BoardState> lastPushed = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor sender = new ThreadPoolExecutor(2, 4, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(1_000), senderThreadFactory());
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final AtomicBoolean sending = new AtomicBoolean();
+        volatile boolean needsSnapshot = true;
+        volatile long lastSentAt = System.currentTimeMillis();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    private record BoardState(String periodKey, long version, List<LeaderboardEntryDto> top,
+                              Map<Long, LeaderboardEntryDto> byUser) {
+    }
+
+    public SseEmitter subscribe(String period) {
+        String normalized = normalize(period);
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(emitter);
+        List<Subscriber> list = subscribers.computeIfAbsent(normalized, key -> new CopyOnWriteArrayList<>());
+        list.add(subscriber);
+        emitter.onCompletion(() -> list.remove(subscriber));
+        emitter.onTimeout(() -> list.remove(subscriber));
+        emitter.onError(e -> list.remove(subscriber));
+        log.info("[LeaderboardStreamService] Subscribed to {} ({} subscribers)", normalized, list.size());
+        return emitter;
+    }
+
+    /** Push coalesced changes of every subscribed period. Called by LeaderboardScheduler. */
+    public void publishChanges() {
+        LocalDate today = LocalDate.now();
+        subscribers.forEach((period, list) -> {
+            if (list.isEmpty()) {
+                lastPushed.remove(period);
+                return;
+            }
+            String periodKey = LeaderboardScheduler.buildPeriodKey(period, today);
+            long version = rankCache.version(periodKey);
+            BoardState previous = lastPushed.get(period);
+
+            BoardState state = previous;
+            LeaderboardDeltaDto delta = null;
+            if (previous == null || !previous.periodKey().equals(periodKey) || previous.version() != version) {
+                state = loadState(period, today, periodKey, version);
+                lastPushed.put(period, state);
+                if (previous != null && previous.periodKey().equals(periodKey)) {
+                    delta = diff(previous, state);
+                } else if (previous != null) {
+                    // Period rolled over: everyone restarts from a snapshot
+                    list.forEach(s -> s.needsSnapshot = true);
+                }
+            }
+
+            long now = System.currentTimeMillis();
+            for (Subscriber subscriber : list) {
+                if (subscriber.needsSnapshot) {
+                    send(list, subscriber, snapshotEvent(state), true);
+                } else if (delta != null) {
+                    send(list, subscriber, SseEmitter.event().name("delta").data(delta, MediaType.APPLICATION_JSON), false);
+                } else if (now - subscriber.lastSentAt > HEARTBEAT_MS) {
+                    send(list, subscriber, SseEmitter.event().comment("ping"), false);
+                }
+            }
+        });
+    }
+
+    private BoardState loadState(String period, LocalDate date, String periodKey, long version) {
+        List<LeaderboardEntryDto> top = leaderboardService.getLiveTop(period, date, TOP_N);
+        Map<Long, LeaderboardEntryDto> byUser = new HashMap<>();
+        for (LeaderboardEntryDto dto : top) byUser.put(dto.getUserId(), dto);
+        return new BoardState(periodKey, version, top, byUser);
+    }
+
+    private LeaderboardDeltaDto diff(BoardState previous, BoardState current) {
+        List<LeaderboardEntryDto> changed = new ArrayList<>();
+        for (LeaderboardEntryDto dto : current.top()) {
+            LeaderboardEntryDto before = previous.byUser().get(dto.getUserId());
+            if (before == null
+                    || !Objects.equals(before.getRank(), dto.getRank())
+                    || !Objects.equals(before.getTotalMinutes(), dto.getTotalMinutes())) {
+                changed.add(dto);
+            }
+        }
+        List<Long> removed = new ArrayList<>();
+        for (Long userId : previous.byUser().keySet()) {
+            if (!current.byUser().containsKey(userId)) removed.add(userId);
+        }
+        if (changed.isEmpty() && removed.isEmpty()) return null;
+        return LeaderboardDeltaDto.builder()
+                .periodKey(current.periodKey())
+                .version(current.version())
+                .changed(changed)
+                .removed(removed)
+                .build();
+    }
+
+    private SseEmitter.SseEventBuilder snapshotEvent(BoardState state) {
+        LeaderboardResponseDto snapshot = LeaderboardResponseDto.builder()
+                .entries(state.top())
+                .build();
+        return SseEmitter.event().name("snapshot").id(state.periodKey() + "." + state.version())
+                .data(snapshot, MediaType.APPLICATION_JSON);
+    }
+
+    private void send(List<Subscriber> list, Subscriber subscriber, SseEmitter.SseEventBuilder event, boolean snapshot) {
+        if (!subscriber.sending.compareAndSet(false, true)) {
+            // Still writing a previous event: this delta is skipped, so resync with a snapshot later
+            if (!snapshot) subscriber.needsSnapshot = true;
+            return;
+        }
+        try {
+            sender.execute(() -> {
+                try {
+                    subscriber.emitter.send(event);
+                    if (snapshot) subscriber.needsSnapshot = false;
+                    subscriber.lastSentAt = System.currentTimeMillis();
+                } catch (Exception e) {
+                    list.remove(subscriber);
+                    subscriber.emitter.completeWithError(e);
+                } finally {
+                    subscriber.sending.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            subscriber.sending.set(false);
+            subscriber.needsSnapshot = true;
+        }
+    }
+
+    private static String normalize(String period) {
+        String p = period != null ? period.toLowerCase() : "daily";
+        return switch (p) {
+            case "weekly", "monthly" -> p;
+            default -> "daily";
+        };
+    }
+
+    private static java.util.concurrent.ThreadFactory senderThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-sse-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
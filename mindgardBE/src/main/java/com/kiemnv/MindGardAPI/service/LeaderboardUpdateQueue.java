@@ -0,0 +1,83 @@
+package com.kiemnv.MindGardAPI.service;
+
+import com.kiemnv.MindGardAPI.leaderboard.FocusRecordedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies leaderboard write-through off the request thread.
+ * Events are taken only after the session's transaction commits; a user already waiting in the
+ * queue is not queued again, so a burst of uploads becomes one update per drain window.
+ * The queue is bounded: when full, the update is dropped and the next scheduler run catches up.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LeaderboardUpdateQueue {
+
+    private static final int MAX_PENDING = 10_000;
+    private static final long DRAIN_INTERVAL_MS = 500;
+
+    private final LeaderboardService leaderboardService;
+
+    private final BlockingQueue<Long> queue = new ArrayBlockingQueue<>(MAX_PENDING);
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "leaderboard-write-through");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void start() {
+        drainer.scheduleWithFixedDelay(this::drain, DRAIN_INTERVAL_MS, DRAIN_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFocusRecorded(FocusRecordedEvent event) {
+        enqueue(event.userId());
+    }
+
+    public void enqueue(Long userId) {
+        if (userId == null || !pending.add(userId)) return; // already waiting: coalesced
+        if (!queue.offer(userId)) {
+            pending.remove(userId);
+            log.warn("[LeaderboardUpdateQueue] Queue full, dropping update for user {} (next scheduler run catches up)", userId);
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private void drain() {
+        Long userId;
+        while ((userId = queue.poll()) != null) {
+            // Release before applying, so an upload landing during the update queues a fresh one
+            pending.remove(userId);
+            try {
+                leaderboardService.updateUserLeaderboard(userId);
+            } catch (Exception e) {
+                log.error("[LeaderboardUpdateQueue] Write-through failed for user {}: {}", userId, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drainer.shutdown();
+    }
+}
@@ -0,0 +1,173 @@
+package com.kiemnv.MindGardAPI.service;
+
+import com.kiemnv.MindGardAPI.entity.PomodoroSessionArchive;
+import com.kiemnv.MindGardAPI.repository.PomodoroPartitionRepository;
+import com.kiemnv.MindGardAPI.repository.PomodoroSessionArchiveRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Keeps pomodoro_sessions range-partitioned by month on end_at, so endAt range filters
+ * (stats, leaderboards, profiles) prune to the months they touch.
+ * Converts the plain table once, keeps PARTITIONS_AHEAD future months attached, and moves months
+ * older than app.pomodoro.archive-after-months into pomodoro_session_archives (detach, compress, drop).
+ * Archived sessions stay out of raw-session queries and the focus rollup backfill; the rollups,
+ * stats and leaderboard archives already hold their totals.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PomodoroPartitionService {
+
+    /** Advisory lock key so only one replica changes partitions at a time ("MGPP"). */
+    private static final long PARTITION_LOCK_KEY = 0x4D475050L;
+    private static final int MIN_SERVER_VERSION = 110000; // default partitions, FKs and row movement
+    private static final int PARTITIONS_AHEAD = 3;
+    private static final int MAX_INITIAL_MONTHS = 120;
+    private static final int ARCHIVE_CHUNK_ROWS = 100_000;
+
+    private final PomodoroPartitionRepository partitionRepository;
+    private final PomodoroSessionArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.pomodoro.archive-after-months:24}")
+    private int archiveAfterMonths;
+
+    /** Convert the plain table Hibernate creates into the partitioned layout; no-op once partitioned. */
+    public boolean ensurePartitioned() {
+        Boolean converted = transactionTemplate.execute(status -> {
+            if (!"r".equals(partitionRepository.relkind())) return false;
+            if (partitionRepository.serverVersion() < MIN_SERVER_VERSION) {
+                log.warn("[PomodoroPartitionService] PostgreSQL 11+ required for partitioning, keeping a plain table");
+                return false;
+            }
+            if (!partitionRepository.tryAdvisoryXactLock(PARTITION_LOCK_KEY)) return false;
+
+            YearMonth current = YearMonth.now();
+            LocalDateTime minEndAt = partitionRepository.findMinEndAt();
+            YearMonth first = minEndAt != null ? YearMonth.from(minEndAt) : current;
+            if (first.isBefore(current.minusMonths(MAX_INITIAL_MONTHS))) first = current.minusMonths(MAX_INITIAL_MONTHS);
+            if (first.isAfter(current)) first = current;
+            List<YearMonth> months = new ArrayList<>();
+            for (YearMonth m = first; !m.isAfter(current.plusMonths(PARTITIONS_AHEAD)); m = m.plusMonths(1)) months.add(m);
+
+            long start = System.currentTimeMillis();
+            partitionRepository.convertToPartitioned(months);
+            log.info("[PomodoroPartitionService] Partitioned pomodoro_sessions into {} months in {}ms",
+                    months.size(), System.currentTimeMillis() - start);
+            return true;
+        });
+        return Boolean.TRUE.equals(converted);
+    }
+
+    /** Daily: attach upcoming months and archive expired ones. Each step is its own locked transaction. */
+    @Scheduled(cron = "0 45 3 * * *")
+    public void maintain() {
+        if (!"p".equals(partitionRepository.relkind())) return;
+        YearMonth current = YearMonth.now();
+        List<YearMonth> existing = new ArrayList<>();
+        for (String name : partitionRepository.findPartitionNames()) {
+            YearMonth month = PomodoroPartitionRepository.monthOf(name);
+            if (month != null) existing.add(month);
+        }
+
+        for (int i = 0; i <= PARTITIONS_AHEAD; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (existing.contains(month)) continue;
+            Integer moved = transactionTemplate.execute(status -> {
+                if (!partitionRepository.tryAdvisoryXactLock(PARTITION_LOCK_KEY)) return null;
+                return partitionRepository.createPartition(month);
+            });
+            if (moved == null) return; // another instance is maintaining
+            log.info("[PomodoroPartitionService] Attached {} ({} rows moved from default)",
+                    PomodoroPartitionRepository.partitionName(month), moved);
+        }
+
+        if (archiveAfterMonths <= 0) return;
+        YearMonth cutoff = current.minusMonths(archiveAfterMonths);
+        for (YearMonth month : existing) {
+            if (!month.isBefore(cutoff)) continue;
+            Integer archived = transactionTemplate.execute(status -> {
+                if (!partitionRepository.tryAdvisoryXactLock(PARTITION_LOCK_KEY)) return null;
+                return archive(month);
+            });
+            if (archived == null) return;
+            log.info("[PomodoroPartitionService] Archived {} sessions of {}", archived, month);
+        }
+    }
+
+    /** Detach a month, compress its rows into archive chunks and drop it, in the caller's transaction. */
+    private int archive(YearMonth month) {
+        if (archiveRepository.countByMonth(month.atDay(1)) > 0) {
+            throw new IllegalStateException("Archive for " + month + " already exists");
+        }
+        partitionRepository.detachPartition(month);
+        ChunkWriter writer = new ChunkWriter(month);
+        partitionRepository.streamRowsAsJson(month, rs -> writer.add(rs.getString(1)));
+        writer.flush();
+        partitionRepository.dropPartition(month);
+        return writer.total;
+    }
+
+    /** Accumulates NDJSON lines into deflated chunks of at most ARCHIVE_CHUNK_ROWS rows. */
+    private final class ChunkWriter {
+        private final YearMonth month;
+        private ByteArrayOutputStream bytes;
+        private DeflaterOutputStream out;
+        private int rows;
+        private int chunk;
+        private int total;
+
+        ChunkWriter(YearMonth month) {
+            this.month = month;
+        }
+
+        void add(String json) {
+            try {
+                if (out == null) {
+                    bytes = new ByteArrayOutputStream();
+                    out = new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_COMPRESSION));
+                }
+                out.write(json.getBytes(StandardCharsets.UTF_8));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to compress archived sessions", e);
+            }
+            rows++;
+            total++;
+            if (rows == ARCHIVE_CHUNK_ROWS) flush();
+        }
+
+        void flush() {
+            if (out == null) return;
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to compress archived sessions", e);
+            }
+            archiveRepository.save(PomodoroSessionArchive.builder()
+                    .month(month.atDay(1))
+                    .chunk(chunk++)
+                    .sessionCount(rows)
+                    .payload(bytes.toByteArray())
+                    .build());
+            out = null;
+            bytes = null;
+            rows = 0;
+        }
+    }
+}
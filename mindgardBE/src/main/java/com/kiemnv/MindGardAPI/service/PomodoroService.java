@@ -1,24 +1,45 @@
 package com.kiemnv.MindGardAPI.service;
 
+import com.kiemnv.MindGardAPI.dto.request.DistractionEventRequest;
 import com.kiemnv.MindGardAPI.dto.request.PomodoroRecordRequest;
 import com.kiemnv.MindGardAPI.dto.response.FocusSessionDto;
+import com.kiemnv.MindGardAPI.dto.response.FocusSessionPageDto;
 import com.kiemnv.MindGardAPI.dto.response.FocusStatsDto;
+import com.kiemnv.MindGardAPI.dto.response.PomodoroHeartbeatDto;
+import com.kiemnv.MindGardAPI.entity.DistractionEvent;
 import com.kiemnv.MindGardAPI.entity.PomodoroSession;
+import com.kiemnv.MindGardAPI.entity.SessionOutboxEvent;
 import com.kiemnv.MindGardAPI.entity.User;
+import com.kiemnv.MindGardAPI.pomodoro.FocusSessionCursor;
+import com.kiemnv.MindGardAPI.pomodoro.RunningTimer;
+import com.kiemnv.MindGardAPI.repository.DistractionEventRepository;
+import com.kiemnv.MindGardAPI.repository.PomodoroJdbcRepository;
 import com.kiemnv.MindGardAPI.repository.PomodoroRepository;
+import com.kiemnv.MindGardAPI.repository.SessionOutboxRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -27,20 +48,49 @@ import java.util.stream.Collectors;
 public class PomodoroService {
 
     private final PomodoroRepository pomodoroRepository;
-    private final UserStatsService userStatsService;
-    private final LeaderboardService leaderboardService;
+    private final SessionOutboxRepository outboxRepository;
+    private final PomodoroJdbcRepository pomodoroJdbcRepository;
+    private final RecentSessionCache recentSessions;
+    private final RunningSessionTimer runningSessionTimer;
+    private final DistractionBuffer distractionBuffer;
+    private final DistractionEventRepository distractionEventRepository;
+    /** The application's mapper, so NDJSON lines serialize like the JSON responses */
+    private final JsonMapper jsonMapper;
+
+    private static final int MAX_SESSION_UUID_LENGTH = 64;
+    private static final int MAX_DETAIL_LENGTH = 255;
+    private static final int MAX_FOCUS_SESSIONS = 1000;
+    private static final int STREAM_PAGE_SIZE = 1000;
 
     public Page<PomodoroSession> list(User user, Pageable pageable) {
         return pomodoroRepository.findByUserId(user.getId(), pageable);
     }
 
-    /** FE extension: record completed or partial focus session (dateISO, durationMin, taskTitle, isPartial) */
+    /**
+     * FE extension: record completed or partial focus session (dateISO, durationMin, taskTitle, isPartial).
+     * With a sessionUuid, a session already recorded under that key is returned instead of inserting again.
+     */
     @Transactional
     public PomodoroSession record(User user, PomodoroRecordRequest req) {
         if (req == null || req.getDateISO() == null || req.getDurationMin() == null) {
             throw new IllegalArgumentException("dateISO and durationMin are required");
         }
-        Instant endInstant = Instant.parse(req.getDateISO());
+        String sessionUuid = sessionUuidOf(req);
+        if (sessionUuid != null) {
+            Optional<PomodoroSession> stored = firstRecorded(user, sessionUuid);
+            if (stored.isPresent()) {
+                PomodoroSession original = stored.get();
+                original.setUser(user);
+                recentSessions.put(original);
+                return original;
+            }
+        }
+        Instant endInstant;
+        try {
+            endInstant = Instant.parse(req.getDateISO());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid dateISO " + req.getDateISO());
+        }
         LocalDateTime endAt = LocalDateTime.ofInstant(endInstant, ZoneId.of("UTC"));
         int durationMin = req.getDurationMin();
         LocalDateTime startAt = endAt.minusMinutes(durationMin);
@@ -53,38 +103,170 @@ public class PomodoroService {
                 .endAt(endAt)
                 .durationSeconds(durationMin * 60L)
                 .status(isPartial ? PomodoroSession.Status.ABORTED : PomodoroSession.Status.FINISHED)
+                .sessionUuid(sessionUuid)
                 .build();
         PomodoroSession saved = pomodoroRepository.save(s);
-        
-        // update stats + XP/level
-        if (isPartial) {
-            userStatsService.applyPartialSession(user, endAt, durationMin * 60L);
-        } else {
-            userStatsService.applyCompletedSession(user, endAt, durationMin * 60L);
-        }
+        recentSessions.putAfterCommit(List.of(saved));
 
-        // Write-through: update leaderboard cache immediately
-        leaderboardService.updateUserLeaderboard(user);
+        // Rollup, stats/XP/streak and leaderboard are projected from the outbox by SessionProjectionWorker
+        outboxRepository.save(outboxEvent(saved, endAt));
 
         return saved;
     }
 
+    /** Session recorded under the request's sessionUuid, from the recent-key cache only (no database access). */
+    public PomodoroSession recentlyRecorded(User user, PomodoroRecordRequest req) {
+        return req != null ? recentSessions.get(user.getId(), sessionUuidOf(req)) : null;
+    }
+
+    /** Session recorded under the request's sessionUuid, e.g. by a concurrent request that won the unique index. */
+    public Optional<PomodoroSession> findRecorded(User user, PomodoroRecordRequest req) {
+        String sessionUuid = req != null ? sessionUuidOf(req) : null;
+        if (sessionUuid == null) return Optional.empty();
+        return firstRecorded(user, sessionUuid)
+                .map(original -> {
+                    original.setUser(user);
+                    recentSessions.put(original);
+                    return original;
+                });
+    }
+
+    /** The first session recorded under the key; later duplicates (different end_at) are ignored. */
+    private Optional<PomodoroSession> firstRecorded(User user, String sessionUuid) {
+        return pomodoroRepository.findByUserIdAndSessionUuidOrderByIdAsc(user.getId(), sessionUuid).stream().findFirst();
+    }
+
+    private static String sessionUuidOf(PomodoroRecordRequest req) {
+        String sessionUuid = req.getSessionUuid();
+        if (sessionUuid == null || sessionUuid.isBlank()) return null;
+        sessionUuid = sessionUuid.trim();
+        if (sessionUuid.length() > MAX_SESSION_UUID_LENGTH) {
+            throw new IllegalArgumentException("sessionUuid must be at most " + MAX_SESSION_UUID_LENGTH + " characters");
+        }
+        return sessionUuid;
+    }
+
+    /**
+     * FE extension: record sessions queued while offline, in one transaction.
+     * Sessions and their outbox events are inserted in JDBC batches; rollup, stats/XP and the
+     * leaderboard update are then projected once for the whole batch. The batch is rejected as a whole if any item is invalid.
+     * Items whose sessionUuid was already recorded (or repeats within the batch) are skipped.
+     */
+    @Transactional
+    public List<PomodoroSession> recordBatch(User user, List<PomodoroRecordRequest> reqs) {
+        List<PomodoroSession> sessions = new ArrayList<>(reqs.size());
+        Set<String> batchUuids = new HashSet<>();
+        for (int i = 0; i < reqs.size(); i++) {
+            PomodoroRecordRequest req = reqs.get(i);
+            if (req == null || req.getDateISO() == null || req.getDurationMin() == null) {
+                throw new IllegalArgumentException("Session " + i + ": dateISO and durationMin are required");
+            }
+            String sessionUuid = sessionUuidOf(req);
+            if (sessionUuid != null
+                    && (!batchUuids.add(sessionUuid) || recentSessions.get(user.getId(), sessionUuid) != null)) {
+                continue;
+            }
+            Instant endInstant;
+            try {
+                endInstant = Instant.parse(req.getDateISO());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Session " + i + ": invalid dateISO " + req.getDateISO());
+            }
+            LocalDateTime endAt = LocalDateTime.ofInstant(endInstant, ZoneId.of("UTC"));
+            int durationMin = req.getDurationMin();
+            boolean isPartial = Boolean.TRUE.equals(req.getIsPartial());
+            sessions.add(PomodoroSession.builder()
+                    .user(user)
+                    .task(req.getTaskTitle() != null ? req.getTaskTitle() : "")
+                    .startAt(endAt.minusMinutes(durationMin))
+                    .endAt(endAt)
+                    .durationSeconds(durationMin * 60L)
+                    .status(isPartial ? PomodoroSession.Status.ABORTED : PomodoroSession.Status.FINISHED)
+                    .sessionUuid(sessionUuid)
+                    .build());
+        }
+        if (!batchUuids.isEmpty()) {
+            // Keys recorded earlier but no longer in the recent-key cache
+            Set<String> stored = new HashSet<>(pomodoroRepository.findSessionUuids(user.getId(), batchUuids));
+            if (!stored.isEmpty()) sessions.removeIf(s -> s.getSessionUuid() != null && stored.contains(s.getSessionUuid()));
+        }
+        if (sessions.isEmpty()) return sessions;
+
+        // Sets the generated ids, which the cache and the outbox events carry
+        pomodoroJdbcRepository.insertAll(sessions);
+        recentSessions.putAfterCommit(sessions);
+        // SessionProjectionWorker picks the batch up as one per-user group
+        pomodoroJdbcRepository.insertOutboxEvents(sessions.stream()
+                .map(s -> outboxEvent(s, s.getEndAt()))
+                .collect(Collectors.toList()));
+        return sessions;
+    }
+
     /** FE extension: list for Statistics / pomodoroStats (dateISO, durationMin, taskTitle) */
     public List<FocusSessionDto> listFocusSessions(User user) {
-        List<PomodoroSession> list = pomodoroRepository.findTop1000ByUserIdAndStatusOrderByStartAtDesc(user.getId(), PomodoroSession.Status.FINISHED);
-        return list.stream().map(p -> {
-            String dateISO = p.getEndAt() != null
-                    ? p.getEndAt().atZone(ZoneOffset.UTC).toInstant().toString()
-                    : (p.getStartAt() != null && p.getDurationSeconds() != null
-                    ? p.getStartAt().plusSeconds(p.getDurationSeconds()).atZone(ZoneOffset.UTC).toInstant().toString()
-                    : null);
-            Integer durationMin = p.getDurationSeconds() != null ? (int) (p.getDurationSeconds() / 60) : 0;
-            return FocusSessionDto.builder()
-                    .dateISO(dateISO)
-                    .durationMin(durationMin)
-                    .taskTitle(p.getTask() != null ? p.getTask() : "")
-                    .build();
-        }).collect(Collectors.toList());
+        return pomodoroRepository.findFocusSessionRows(user.getId(), PageRequest.of(0, MAX_FOCUS_SESSIONS)).stream()
+                .map(PomodoroService::toFocusSessionDto)
+                .collect(Collectors.toList());
+    }
+
+    /** One keyset page of focus sessions, newest first; cursor is the previous page's nextCursor. */
+    public FocusSessionPageDto pageFocusSessions(User user, String cursor, int limit) {
+        List<Object[]> rows = focusSessionRows(user.getId(), cursor != null ? FocusSessionCursor.decode(cursor) : null, limit + 1);
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            Object[] last = rows.get(limit - 1);
+            nextCursor = FocusSessionCursor.encode((LocalDateTime) last[1], (Long) last[0]);
+        }
+        return FocusSessionPageDto.builder()
+                .items(rows.stream().map(PomodoroService::toFocusSessionDto).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Full focus history as NDJSON (one FocusSessionDto per line), newest first.
+     * Walks keyset pages so memory is one page regardless of history size, and no
+     * connection or transaction is held while the client reads.
+     */
+    public void streamFocusSessions(User user, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        FocusSessionCursor.Anchor anchor = null;
+        while (true) {
+            List<Object[]> rows = focusSessionRows(user.getId(), anchor, STREAM_PAGE_SIZE);
+            for (Object[] row : rows) {
+                writer.write(jsonMapper.writeValueAsString(toFocusSessionDto(row)));
+                writer.write('\n');
+            }
+            writer.flush();
+            if (rows.size() < STREAM_PAGE_SIZE) break;
+            Object[] last = rows.get(rows.size() - 1);
+            anchor = new FocusSessionCursor.Anchor((LocalDateTime) last[1], (Long) last[0]);
+        }
+    }
+
+    private List<Object[]> focusSessionRows(Long userId, FocusSessionCursor.Anchor anchor, int limit) {
+        Pageable page = PageRequest.of(0, limit);
+        return anchor == null
+                ? pomodoroRepository.findFocusSessionRows(userId, page)
+                : pomodoroRepository.findFocusSessionRowsAfter(userId, anchor.startAt(), anchor.id(), page);
+    }
+
+    /** Row of findFocusSessionRows: id, startAt, endAt, durationSeconds, task */
+    private static FocusSessionDto toFocusSessionDto(Object[] row) {
+        LocalDateTime startAt = (LocalDateTime) row[1];
+        LocalDateTime endAt = (LocalDateTime) row[2];
+        Long durationSeconds = (Long) row[3];
+        String dateISO = endAt != null
+                ? endAt.atZone(ZoneOffset.UTC).toInstant().toString()
+                : (startAt != null && durationSeconds != null
+                ? startAt.plusSeconds(durationSeconds).atZone(ZoneOffset.UTC).toInstant().toString()
+                : null);
+        return FocusSessionDto.builder()
+                .dateISO(dateISO)
+                .durationMin(durationSeconds != null ? (int) (durationSeconds / 60) : 0)
+                .taskTitle(row[4] != null ? (String) row[4] : "")
+                .build();
     }
 
     /** FE extension: Statistics – streak and weekdayTotals (Sun–Sat) from focus sessions */
@@ -125,35 +307,145 @@ public class PomodoroService {
                 .orElseThrow(() -> new RuntimeException("Pomodoro not found"));
     }
 
+    /**
+     * Start a RUNNING session. With plannedSeconds the server finishes it at its planned end;
+     * clients that send heartbeats get it aborted at the last heartbeat if they go silent.
+     */
     @Transactional
     public PomodoroSession start(User user, PomodoroSession req) {
         req.setUser(user);
         req.setStartAt(LocalDateTime.now());
         req.setStatus(PomodoroSession.Status.RUNNING);
-        return pomodoroRepository.save(req);
+        req.setLastHeartbeatAt(null);
+        if (req.getPlannedSeconds() != null && req.getPlannedSeconds() <= 0) req.setPlannedSeconds(null);
+        PomodoroSession saved = pomodoroRepository.save(req);
+        runningSessionTimer.track(saved);
+        return saved;
+    }
+
+    /** Keep a RUNNING session alive. Reports the final status instead if the server already closed it. */
+    @Transactional
+    public PomodoroHeartbeatDto heartbeat(Long id, User user) {
+        LocalDateTime now = LocalDateTime.now();
+        if (pomodoroRepository.touchRunning(id, user.getId(), now) == 0) {
+            PomodoroSession p = get(id, user);
+            return PomodoroHeartbeatDto.builder()
+                    .id(p.getId())
+                    .status(p.getStatus() != null ? p.getStatus().name() : null)
+                    .remainingSeconds(0L)
+                    .heartbeatTimeoutSeconds(RunningSessionTimer.HEARTBEAT_TIMEOUT.getSeconds())
+                    .build();
+        }
+        RunningTimer timer = runningSessionTimer.heartbeat(id, now);
+        if (timer == null) {
+            // Started on another instance (or before a restart): track it here from now on
+            PomodoroSession p = get(id, user);
+            runningSessionTimer.track(p);
+            timer = new RunningTimer(p.getId(), user.getId(), p.getStartAt(), p.getPlannedSeconds(), now);
+        }
+        return PomodoroHeartbeatDto.builder()
+                .id(id)
+                .status(PomodoroSession.Status.RUNNING.name())
+                .remainingSeconds(timer.remainingSeconds(now))
+                .heartbeatTimeoutSeconds(RunningSessionTimer.HEARTBEAT_TIMEOUT.getSeconds())
+                .build();
     }
 
+    /** Close a RUNNING session; a session already closed (e.g. by the server timer) is returned unchanged. */
     @Transactional
     public PomodoroSession stop(Long id, User user, boolean interrupted) {
-        PomodoroSession p = get(id, user);
+        PomodoroSession p = pomodoroRepository.findByIdForUpdate(id)
+                .filter(s -> s.getUser().getId().equals(user.getId()))
+                .orElseThrow(() -> new RuntimeException("Pomodoro not found"));
+        if (p.getStatus() != PomodoroSession.Status.RUNNING) {
+            runningSessionTimer.cancel(id);
+            return p;
+        }
         p.setEndAt(LocalDateTime.now());
         if (p.getStartAt() != null) {
             p.setDurationSeconds(java.time.Duration.between(p.getStartAt(), p.getEndAt()).getSeconds());
         }
         p.setStatus(interrupted ? PomodoroSession.Status.ABORTED : PomodoroSession.Status.FINISHED);
+        foldDistractions(p);
         PomodoroSession saved = pomodoroRepository.save(p);
-        
+        runningSessionTimer.cancel(id);
+
         if (saved.getEndAt() != null && saved.getDurationSeconds() != null) {
-            if (!interrupted) {
-                userStatsService.applyCompletedSession(user, saved.getEndAt(), saved.getDurationSeconds());
-            } else {
-                userStatsService.applyPartialSession(user, saved.getEndAt(), saved.getDurationSeconds());
+            // stop() stamps endAt with the server clock (JVM zone); the outbox carries UTC
+            LocalDateTime endedAtUtc = LocalDateTime.ofInstant(
+                    saved.getEndAt().atZone(ZoneId.systemDefault()).toInstant(), ZoneOffset.UTC);
+            outboxRepository.save(outboxEvent(saved, endedAtUtc));
+        }
+
+        return saved;
+    }
+
+    /**
+     * Extension: buffer distraction events for a RUNNING session; they are written in batches and
+     * folded into interruptions / distractionCount when the session is finalized. Returns the number accepted.
+     */
+    public int recordDistractions(Long id, User user, List<DistractionEventRequest> reqs) {
+        RunningTimer timer = runningSessionTimer.timer(id);
+        if (timer == null || timer.userId() != user.getId()) {
+            PomodoroSession p = get(id, user);
+            if (p.getStatus() != PomodoroSession.Status.RUNNING) {
+                throw new IllegalStateException("Pomodoro is not running");
+            }
+            runningSessionTimer.track(p);
+        }
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        List<DistractionEvent> events = new ArrayList<>(reqs.size());
+        for (int i = 0; i < reqs.size(); i++) {
+            DistractionEventRequest req = reqs.get(i);
+            DistractionEvent.Type type;
+            try {
+                type = DistractionEvent.Type.valueOf(req.getType());
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Event " + i + ": unknown type " + req.getType());
             }
+            LocalDateTime occurredAt = now;
+            if (req.getOccurredISO() != null) {
+                try {
+                    occurredAt = LocalDateTime.ofInstant(Instant.parse(req.getOccurredISO()), ZoneOffset.UTC);
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("Event " + i + ": invalid occurredISO " + req.getOccurredISO());
+                }
+            }
+            String detail = req.getDetail();
+            if (detail != null && detail.length() > MAX_DETAIL_LENGTH) detail = detail.substring(0, MAX_DETAIL_LENGTH);
+            events.add(DistractionEvent.builder()
+                    .sessionId(id)
+                    .userId(user.getId())
+                    .type(type)
+                    .detail(detail)
+                    .occurredAt(occurredAt)
+                    .build());
         }
+        distractionBuffer.add(id, events);
+        return events.size();
+    }
 
-        // Write-through: update leaderboard cache immediately
-        leaderboardService.updateUserLeaderboard(user);
+    /** Write the session's buffered distraction events and copy their counts onto the session. */
+    private void foldDistractions(PomodoroSession p) {
+        distractionBuffer.flushSessions(List.of(p.getId()));
+        int interruptions = 0;
+        int distractions = 0;
+        for (Object[] row : distractionEventRepository.countByTypeForSession(p.getId())) {
+            int count = ((Long) row[1]).intValue();
+            if (((DistractionEvent.Type) row[0]).isInterruption()) interruptions += count;
+            else distractions += count;
+        }
+        p.setInterruptions(interruptions);
+        p.setDistractionCount(distractions);
+    }
 
-        return saved;
+    private static SessionOutboxEvent outboxEvent(PomodoroSession session, LocalDateTime endedAtUtc) {
+        return SessionOutboxEvent.builder()
+                .userId(session.getUser().getId())
+                .sessionId(session.getId())
+                .endedAt(endedAtUtc)
+                .durationSeconds(session.getDurationSeconds())
+                .finished(session.getStatus() == PomodoroSession.Status.FINISHED)
+                .build();
     }
 }
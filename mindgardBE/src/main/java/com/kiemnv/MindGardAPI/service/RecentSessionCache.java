@@ -0,0 +1,58 @@
+package com.kiemnv.MindGardAPI.service;
+
+import com.kiemnv.MindGardAPI.entity.PomodoroSession;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recently recorded sessions by (userId, sessionUuid), so retries and double submits are
+ * answered with the original session without touching the database. Bounded LRU; after eviction
+ * or restart the unique (user_id, session_uuid, end_at) key of the partitioned table takes over.
+ * That key only rejects a replay with the same end time: the same sessionUuid sent with a different
+ * dateISO, or after its month was archived, is recorded again once it has left this cache.
+ */
+@Component
+public class RecentSessionCache {
+
+    private static final int MAX_KEYS = 10_000;
+
+    private final Map<String, PomodoroSession> sessions = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PomodoroSession> eldest) {
+            return size() > MAX_KEYS;
+        }
+    };
+
+    public synchronized PomodoroSession get(Long userId, String sessionUuid) {
+        if (userId == null || sessionUuid == null) return null;
+        return sessions.get(key(userId, sessionUuid));
+    }
+
+    public synchronized void put(PomodoroSession session) {
+        if (session.getSessionUuid() == null || session.getUser() == null) return;
+        sessions.put(key(session.getUser().getId(), session.getSessionUuid()), session);
+    }
+
+    /** Remember sessions once the surrounding transaction commits, so a rollback never leaves a key behind. */
+    public void putAfterCommit(List<PomodoroSession> recorded) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recorded.forEach(this::put);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recorded.forEach(RecentSessionCache.this::put);
+            }
+        });
+    }
+
+    private static String key(Long userId, String sessionUuid) {
+        return userId + ":" + sessionUuid;
+    }
+}
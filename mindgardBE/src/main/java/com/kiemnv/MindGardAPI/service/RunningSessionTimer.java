@@ -0,0 +1,228 @@
+package com.kiemnv.MindGardAPI.service;
+
+import com.kiemnv.MindGardAPI.entity.PomodoroSession;
+import com.kiemnv.MindGardAPI.entity.SessionOutboxEvent;
+import com.kiemnv.MindGardAPI.pomodoro.HashedTimingWheel;
+import com.kiemnv.MindGardAPI.pomodoro.RunningTimer;
+import com.kiemnv.MindGardAPI.repository.PomodoroJdbcRepository;
+import com.kiemnv.MindGardAPI.repository.PomodoroRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-side deadlines for RUNNING pomodoro sessions, so sessions whose browser or extension died
+ * still reach stats. Each session sits in a hashed timing wheel at its next deadline:
+ * the planned end (finished as planned) or the heartbeat timeout (aborted at the last heartbeat).
+ * Sessions with neither a plan nor a heartbeat are aborted after a long grace.
+ * Expired sessions are closed in batches with a conditional UPDATE (still RUNNING, no newer heartbeat)
+ * plus a session_outbox event, so a concurrent stop() or another instance never double counts.
+ * The wheel is rebuilt from RUNNING rows once at startup; there is no periodic table scan.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RunningSessionTimer {
+
+    private static final long TICK_MS = 1000;
+    private static final int WHEEL_SLOTS = 512;
+    public static final Duration HEARTBEAT_TIMEOUT = Duration.ofSeconds(90);
+    private static final Duration ABANDONED_AFTER = Duration.ofHours(4);
+    private static final int FINALIZE_BATCH = 500;
+
+    private final PomodoroRepository pomodoroRepository;
+    private final PomodoroJdbcRepository pomodoroJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DistractionBuffer distractionBuffer;
+
+    private final HashedTimingWheel<RunningTimer> wheel = new HashedTimingWheel<>(TICK_MS, WHEEL_SLOTS, System.currentTimeMillis());
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "running-session-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void start() {
+        ticker.execute(this::recover);
+        ticker.scheduleWithFixedDelay(this::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdown();
+    }
+
+    /** Start tracking a RUNNING session (or refresh it from the row). */
+    public void track(PomodoroSession session) {
+        if (session.getId() == null || session.getStartAt() == null) return;
+        schedule(new RunningTimer(session.getId(), session.getUser().getId(), session.getStartAt(),
+                session.getPlannedSeconds(), session.getLastHeartbeatAt()));
+    }
+
+    /** Push a tracked session's heartbeat deadline out; returns null if this instance does not track it. */
+    public RunningTimer heartbeat(long sessionId, LocalDateTime at) {
+        synchronized (wheel) {
+            RunningTimer timer = wheel.get(sessionId);
+            if (timer == null) return null;
+            RunningTimer touched = timer.withHeartbeat(at);
+            wheel.schedule(sessionId, epochMs(deadlineOf(touched)), touched);
+            return touched;
+        }
+    }
+
+    /** The tracked state of a session, or null if this instance does not track it. */
+    public RunningTimer timer(long sessionId) {
+        synchronized (wheel) {
+            return wheel.get(sessionId);
+        }
+    }
+
+    public void cancel(long sessionId) {
+        synchronized (wheel) {
+            wheel.cancel(sessionId);
+        }
+    }
+
+    public int tracked() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private void schedule(RunningTimer timer) {
+        synchronized (wheel) {
+            wheel.schedule(timer.sessionId(), epochMs(deadlineOf(timer)), timer);
+        }
+    }
+
+    private void recover() {
+        try {
+            List<Object[]> rows = pomodoroRepository.findRunningTimers();
+            int added = 0;
+            synchronized (wheel) {
+                for (Object[] row : rows) {
+                    RunningTimer timer = timerOf(row);
+                    if (wheel.get(timer.sessionId()) != null) continue; // tracked since startup, fresher
+                    wheel.schedule(timer.sessionId(), epochMs(deadlineOf(timer)), timer);
+                    added++;
+                }
+            }
+            log.info("[RunningSessionTimer] Tracking {} running sessions after startup", added);
+        } catch (Exception e) {
+            log.error("[RunningSessionTimer] Could not load running sessions: {}", e.getMessage());
+        }
+    }
+
+    private void tick() {
+        try {
+            List<RunningTimer> expired;
+            synchronized (wheel) {
+                expired = wheel.advance(System.currentTimeMillis());
+            }
+            for (int from = 0; from < expired.size(); from += FINALIZE_BATCH) {
+                finalizeBatch(expired.subList(from, Math.min(expired.size(), from + FINALIZE_BATCH)));
+            }
+        } catch (Exception e) {
+            log.error("[RunningSessionTimer] Tick failed: {}", e.getMessage());
+        }
+    }
+
+    /** Close one batch of expired sessions; sessions that turn out to be alive elsewhere are re-read and rescheduled. */
+    private void finalizeBatch(List<RunningTimer> timers) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PomodoroSession> closing = new ArrayList<>(timers.size());
+        for (RunningTimer timer : timers) closing.add(finalSession(timer));
+
+        List<Long> missed = new ArrayList<>();
+        Integer closedCount;
+        try {
+            closedCount = transactionTemplate.execute(status -> {
+                distractionBuffer.flushSessions(closing.stream().map(PomodoroSession::getId).toList());
+                boolean[] closed = pomodoroJdbcRepository.finalizeRunning(closing, now.minus(HEARTBEAT_TIMEOUT));
+                List<SessionOutboxEvent> events = new ArrayList<>();
+                for (int i = 0; i < closing.size(); i++) {
+                    if (closed[i]) {
+                        events.add(outboxEvent(timers.get(i).userId(), closing.get(i)));
+                    } else {
+                        missed.add(closing.get(i).getId());
+                    }
+                }
+                pomodoroJdbcRepository.insertOutboxEvents(events);
+                return events.size();
+            });
+        } catch (Exception e) {
+            // e.g. a concurrent stop() moved the row to its month partition; retry the survivors next tick
+            log.warn("[RunningSessionTimer] Finalizing {} sessions failed: {}", timers.size(), e.getMessage());
+            for (Object[] row : pomodoroRepository.findRunningTimersByIds(closing.stream().map(PomodoroSession::getId).toList())) {
+                schedule(timerOf(row));
+            }
+            return;
+        }
+        if (!missed.isEmpty()) {
+            // Stopped meanwhile (gone), or heartbeats went to another instance (still RUNNING: track the row)
+            for (Object[] row : pomodoroRepository.findRunningTimersByIds(missed)) schedule(timerOf(row));
+        }
+        log.info("[RunningSessionTimer] Finalized {} of {} expired sessions", closedCount, timers.size());
+    }
+
+    /**
+     * The next deadline: the planned end, the heartbeat timeout once heartbeats started,
+     * or the abandonment grace for a session with neither.
+     */
+    private static LocalDateTime deadlineOf(RunningTimer timer) {
+        LocalDateTime plannedEnd = timer.plannedEndAt();
+        LocalDateTime heartbeatDeadline = timer.lastHeartbeatAt() != null
+                ? timer.lastHeartbeatAt().plus(HEARTBEAT_TIMEOUT)
+                : (plannedEnd == null ? timer.startAt().plus(ABANDONED_AFTER) : null);
+        if (plannedEnd == null) return heartbeatDeadline;
+        if (heartbeatDeadline == null) return plannedEnd;
+        return plannedEnd.isAfter(heartbeatDeadline) ? heartbeatDeadline : plannedEnd;
+    }
+
+    /** FINISHED at the planned end if that came first, otherwise ABORTED at the last sign of life. */
+    private static PomodoroSession finalSession(RunningTimer timer) {
+        LocalDateTime plannedEnd = timer.plannedEndAt();
+        boolean finished = plannedEnd != null && !plannedEnd.isAfter(deadlineOf(timer));
+        LocalDateTime endAt = finished ? plannedEnd
+                : (timer.lastHeartbeatAt() != null ? timer.lastHeartbeatAt() : timer.startAt());
+        return PomodoroSession.builder()
+                .id(timer.sessionId())
+                .endAt(endAt)
+                .durationSeconds(Math.max(0L, Duration.between(timer.startAt(), endAt).getSeconds()))
+                .status(finished ? PomodoroSession.Status.FINISHED : PomodoroSession.Status.ABORTED)
+                .build();
+    }
+
+    /** Same event stop() writes: endAt is server-local, the outbox carries UTC. */
+    private static SessionOutboxEvent outboxEvent(long userId, PomodoroSession closed) {
+        return SessionOutboxEvent.builder()
+                .userId(userId)
+                .sessionId(closed.getId())
+                .endedAt(LocalDateTime.ofInstant(closed.getEndAt().atZone(ZoneId.systemDefault()).toInstant(), ZoneOffset.UTC))
+                .durationSeconds(closed.getDurationSeconds())
+                .finished(closed.getStatus() == PomodoroSession.Status.FINISHED)
+                .build();
+    }
+
+    private static RunningTimer timerOf(Object[] row) {
+        return new RunningTimer((Long) row[0], (Long) row[1], (LocalDateTime) row[2], (Long) row[3], (LocalDateTime) row[4]);
+    }
+
+    private static long epochMs(LocalDateTime at) {
+        return at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,202 @@
+package com.kiemnv.MindGardAPI.service;
+
+import com.kiemnv.MindGardAPI.dto.response.OutboxStatsDto;
+import com.kiemnv.MindGardAPI.entity.PomodoroSession;
+import com.kiemnv.MindGardAPI.entity.SessionOutboxEvent;
+import com.kiemnv.MindGardAPI.entity.User;
+import com.kiemnv.MindGardAPI.leaderboard.FocusRecordedEvent;
+import com.kiemnv.MindGardAPI.repository.SessionOutboxRepository;
+import com.kiemnv.MindGardAPI.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies session side effects from the session_outbox: daily/season rollup, stats, streak, XP
+ * and the leaderboard write-through (via FocusRecordedEvent after commit).
+ * Workers claim batches with FOR UPDATE SKIP LOCKED, so several workers and instances share the
+ * backlog, and apply each user's events of a batch in one go under a per-user advisory lock, since SKIP LOCKED
+ * hands out disjoint rows, not disjoint users. A failing batch is retried per user;
+ * a user's events that keep failing are parked after MAX_ATTEMPTS until replayed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionProjectionWorker {
+
+    private static final int WORKERS = 2;
+    private static final int BATCH_SIZE = 500;
+    private static final long POLL_INTERVAL_MS = 250;
+    public static final int MAX_ATTEMPTS = 5;
+    private static final Duration RETENTION = Duration.ofDays(3);
+    private static final long CLEANUP_INTERVAL_MS = 10 * 60_000L;
+    /** Advisory lock namespace of per-user projection locks ("MGSP") */
+    private static final int USER_LOCK_NAMESPACE = 0x4D475350;
+
+    private final SessionOutboxRepository outboxRepository;
+    private final UserRepository userRepository;
+    private final FocusRollupService focusRollupService;
+    private final UserStatsService userStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong processedTotal = new AtomicLong();
+    private final AtomicLong failedTotal = new AtomicLong();
+    private final AtomicInteger lastBatchSize = new AtomicInteger();
+    private final AtomicLong lastBatchMs = new AtomicLong();
+    private final AtomicLong lastBatchMaxLagMs = new AtomicLong();
+    private final AtomicLong lastCleanup = new AtomicLong();
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final ScheduledExecutorService workers = Executors.newScheduledThreadPool(WORKERS, runnable -> {
+        Thread thread = new Thread(runnable, "session-projection-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < WORKERS; i++) {
+            workers.scheduleWithFixedDelay(this::drain, POLL_INTERVAL_MS, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    /** Process batches until the backlog is empty (or a batch fails). */
+    private void drain() {
+        try {
+            while (processBatch() == BATCH_SIZE) {
+                // full batch: more may be waiting
+            }
+            cleanupIfDue();
+        } catch (Exception e) {
+            log.error("[SessionProjectionWorker] Drain failed: {}", e.getMessage());
+        }
+    }
+
+    /** Claim and apply one batch; returns the number of events claimed. */
+    private int processBatch() {
+        long start = System.currentTimeMillis();
+        List<Long> claimed = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<SessionOutboxEvent> events = outboxRepository.claimPending(MAX_ATTEMPTS, BATCH_SIZE);
+                events.forEach(e -> claimed.add(e.getId()));
+                apply(events);
+            });
+        } catch (Exception e) {
+            if (claimed.isEmpty()) throw e;
+            log.warn("[SessionProjectionWorker] Batch of {} failed ({}), retrying per user", claimed.size(), e.getMessage());
+            retryPerUser(claimed);
+        }
+        if (!claimed.isEmpty()) {
+            lastBatchSize.set(claimed.size());
+            lastBatchMs.set(System.currentTimeMillis() - start);
+        }
+        return claimed.size();
+    }
+
+    /** Apply events grouped by user, then mark them processed, all in the caller's transaction. */
+    private void apply(List<SessionOutboxEvent> events) {
+        if (events.isEmpty()) return;
+        // Ascending user order, so two workers locking overlapping users cannot deadlock
+        Map<Long, List<PomodoroSession>> byUser = new TreeMap<>();
+        for (SessionOutboxEvent e : events) {
+            byUser.computeIfAbsent(e.getUserId(), id -> new ArrayList<>()).add(PomodoroSession.builder()
+                    .endAt(e.getEndedAt())
+                    .durationSeconds(e.getDurationSeconds())
+                    .status(Boolean.TRUE.equals(e.getFinished()) ? PomodoroSession.Status.FINISHED : PomodoroSession.Status.ABORTED)
+                    .build());
+        }
+        Map<Long, User> users = new LinkedHashMap<>();
+        userRepository.findAllById(byUser.keySet()).forEach(user -> users.put(user.getId(), user));
+
+        byUser.forEach((userId, sessions) -> {
+            User user = users.get(userId);
+            if (user == null) return; // deleted account: nothing to project
+            // Stats, XP and streak are read-modify-writes: serialize them per user across workers
+            outboxRepository.lockUser(USER_LOCK_NAMESPACE, userId);
+            focusRollupService.recordSessions(user, sessions);
+            userStatsService.applySessions(user, sessions);
+            eventPublisher.publishEvent(new FocusRecordedEvent(userId));
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.markProcessed(events.stream().map(SessionOutboxEvent::getId).toList(), now);
+        processedTotal.addAndGet(events.size());
+        long maxLag = 0;
+        for (SessionOutboxEvent e : events) maxLag = Math.max(maxLag, Duration.between(e.getCreatedAt(), now).toMillis());
+        lastBatchMaxLagMs.set(maxLag);
+    }
+
+    private void retryPerUser(List<Long> claimed) {
+        Map<Long, List<Long>> idsByUser = new LinkedHashMap<>();
+        for (SessionOutboxEvent e : outboxRepository.findAllById(claimed)) {
+            if (e.getProcessedAt() == null) idsByUser.computeIfAbsent(e.getUserId(), id -> new ArrayList<>()).add(e.getId());
+        }
+        idsByUser.forEach((userId, ids) -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(outboxRepository.claimByIds(ids)));
+            } catch (Exception e) {
+                failedTotal.addAndGet(ids.size());
+                String error = String.valueOf(e.getMessage());
+                log.error("[SessionProjectionWorker] Projection failed for user {} ({} events): {}", userId, ids.size(), error);
+                transactionTemplate.executeWithoutResult(status ->
+                        outboxRepository.markFailed(ids, error.length() > 500 ? error.substring(0, 500) : error));
+            }
+        });
+    }
+
+    private void cleanupIfDue() {
+        long now = System.currentTimeMillis();
+        long last = lastCleanup.get();
+        if (now - last < CLEANUP_INTERVAL_MS || !lastCleanup.compareAndSet(last, now)) return;
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxRepository.deleteProcessedBefore(LocalDateTime.now().minus(RETENTION)));
+        if (deleted != null && deleted > 0) log.info("[SessionProjectionWorker] Purged {} processed outbox events", deleted);
+    }
+
+    public OutboxStatsDto stats() {
+        LocalDateTime oldest = outboxRepository.findOldestPendingCreatedAt(MAX_ATTEMPTS);
+        return OutboxStatsDto.builder()
+                .pending(outboxRepository.countPending(MAX_ATTEMPTS))
+                .parked(outboxRepository.countParked(MAX_ATTEMPTS))
+                .oldestPendingAgeMs(oldest != null ? Duration.between(oldest, LocalDateTime.now()).toMillis() : 0L)
+                .processedTotal(processedTotal.get())
+                .failedTotal(failedTotal.get())
+                .lastBatchSize(lastBatchSize.get())
+                .lastBatchMs(lastBatchMs.get())
+                .lastBatchMaxLagMs(lastBatchMaxLagMs.get())
+                .build();
+    }
+
+    /**
+     * Put parked events back in the queue (all users, or one). Processed events are never re-applied:
+     * projections are increments, so a full rebuild goes through the rollup backfill instead.
+     */
+    public int replayParked(Long userId) {
+        Integer replayed = transactionTemplate.execute(status -> outboxRepository.replayParked(MAX_ATTEMPTS, userId));
+        log.info("[SessionProjectionWorker] Replaying {} parked events (user={})", replayed, userId);
+        return replayed != null ? replayed : 0;
+    }
+}
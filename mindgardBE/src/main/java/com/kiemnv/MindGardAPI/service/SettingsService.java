@@ -14,6 +14,7 @@ import java.time.LocalDateTime;
 public class SettingsService {
 
     private final SettingsRepository settingsRepository;
+    private final LeaderboardRegionResolver regionResolver;
 
     public Settings getForUser(User user) {
         return settingsRepository.findByUserId(user.getId()).orElseGet(() -> {
@@ -29,7 +30,10 @@ public class SettingsService {
     @Transactional
     public Settings update(User user, Settings update) {
         Settings s = getForUser(user);
-        if (update.getTimezone() != null) s.setTimezone(update.getTimezone());
+        if (update.getTimezone() != null) {
+            s.setTimezone(update.getTimezone());
+            regionResolver.evict(user.getId()); // later sessions count towards the new region
+        }
         if (update.getTheme() != null) s.setTheme(update.getTheme());
         if (update.getPomodoroDefaults() != null) s.setPomodoroDefaults(update.getPomodoroDefaults());
         if (update.getNotifications() != null) s.setNotifications(update.getNotifications());
@@ -35,6 +35,7 @@ public class UserService implements UserDetailsService {
     private final UserStatsRepository userStatsRepository;
     private final PomodoroRepository pomodoroRepository;
     private final FriendService friendService;
+    private final LeaderboardProfileCache leaderboardProfileCache;
 
     @Override
     @Transactional(readOnly = true)
@@ -74,6 +75,7 @@ public class UserService implements UserDetailsService {
             existingUser.setBio(userUpdate.getBio());
         }
         existingUser.setUpdatedAt(LocalDateTime.now());
+        leaderboardProfileCache.evict(id);
 
         return userRepository.save(existingUser);
     }
@@ -113,6 +113,53 @@ public class UserStatsService {
         applyXpAndLevel(user.getId(), addMin);
     }
 
+    /**
+     * Batch form of applyCompletedSession/applyPartialSession for one user's sessions
+     * (endAt in UTC): stats row, streak and XP are read and written once for the whole batch.
+     * Partial sessions under a minute are skipped, as in applyPartialSession.
+     */
+    @Transactional
+    public void applySessions(User user, List<PomodoroSession> sessions) {
+        if (user == null || user.getId() == null) return;
+
+        long addSeconds = 0;
+        int addPomodoros = 0;
+        int addMinutes = 0;
+        Map<String, Integer> addByDay = new HashMap<>();
+        for (PomodoroSession p : sessions) {
+            long durationSeconds = p.getDurationSeconds() != null ? p.getDurationSeconds() : 0L;
+            if (p.getEndAt() == null || durationSeconds <= 0) continue;
+            boolean finished = p.getStatus() == PomodoroSession.Status.FINISHED;
+            if (!finished && durationSeconds < 60) continue;
+            int minutes = (int) (durationSeconds / 60);
+            addSeconds += durationSeconds;
+            if (finished) addPomodoros++;
+            addMinutes += minutes;
+            addByDay.merge(p.getEndAt().toLocalDate().toString(), minutes, Integer::sum);
+        }
+        if (addSeconds == 0) return;
+
+        UserStats s = userStatsRepository.findByUserId(user.getId())
+                .orElseGet(() -> UserStats.builder()
+                        .user(user)
+                        .totalFocusSeconds(0L)
+                        .pomodoroCount(0)
+                        .dailyStreak(0)
+                        .byDayJson("{}")
+                        .updatedAt(LocalDateTime.now())
+                        .build());
+        s.setTotalFocusSeconds((s.getTotalFocusSeconds() != null ? s.getTotalFocusSeconds() : 0L) + addSeconds);
+        s.setPomodoroCount((s.getPomodoroCount() != null ? s.getPomodoroCount() : 0) + addPomodoros);
+        Map<String, Integer> byDay = safeParseByDay(s.getByDayJson());
+        addByDay.forEach((day, minutes) -> byDay.merge(day, minutes, Integer::sum));
+        s.setByDayJson(safeWriteByDay(byDay));
+        s.setDailyStreak(computeCurrentStreakDays(user.getId()));
+        s.setUpdatedAt(LocalDateTime.now());
+        userStatsRepository.save(s);
+
+        applyXpAndLevel(user.getId(), addMinutes);
+    }
+
     private Map<String, Integer> safeParseByDay(String json) {
         if (json == null || json.isBlank()) return new HashMap<>();
         try {
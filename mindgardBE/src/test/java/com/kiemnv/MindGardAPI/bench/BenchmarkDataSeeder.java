@@ -0,0 +1,94 @@
+package com.kiemnv.MindGardAPI.bench;
+
+import com.kiemnv.MindGardAPI.service.FocusRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds the benchmark dataset straight in SQL (generate_series), so 10M sessions take
+ * minutes instead of hours through JPA. Bench users are named "bench_N"; sessions carry
+ * task "bench" and a skewed activity distribution (a few heavy users, a long tail).
+ * Meant for a dedicated database; a reseed only deletes rows of bench users. The benchmark never
+ * compacts periods, so it leaves no leaderboard archives behind.
+ */
+@Slf4j
+@Component
+@Profile("bench")
+@RequiredArgsConstructor
+public class BenchmarkDataSeeder {
+
+    private static final long SESSION_CHUNK = 1_000_000L;
+
+    private static final String BENCH_USERS = "SELECT id FROM users WHERE username LIKE 'bench\\_%'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FocusRollupService focusRollupService;
+
+    /** Seed users, sessions and the daily rollup unless a complete dataset is already there. */
+    public void seed(BenchmarkProperties props) {
+        if (props.isReseed()) clear();
+        long users = count("SELECT COUNT(*) FROM users WHERE username LIKE 'bench\\_%'");
+        long sessions = count("SELECT COUNT(*) FROM pomodoro_sessions WHERE task = 'bench'");
+        if (users >= props.getUsers() && sessions >= props.getSessions()) {
+            log.info("[BenchmarkDataSeeder] Reusing dataset: {} users, {} sessions", users, sessions);
+            return;
+        }
+        if (users > 0 || sessions > 0) clear();
+
+        long start = System.currentTimeMillis();
+        jdbcTemplate.update("INSERT INTO users (username, first_name, last_name, status, provider, level, current_xp, " +
+                "xp_to_next_level, created_at, updated_at) " +
+                "SELECT 'bench_' || g, 'Bench', 'User ' || g, 'ACTIVE', 'LOCAL', 1, 0, 100, now(), now() " +
+                "FROM generate_series(1, ?) g", props.getUsers());
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role) SELECT id, 'USER' FROM users WHERE username LIKE 'bench\\_%'");
+        // One insert statement hands out a contiguous identity range
+        long firstUserId = count("SELECT MIN(id) FROM users WHERE username LIKE 'bench\\_%'");
+        log.info("[BenchmarkDataSeeder] Seeded {} users in {}ms", props.getUsers(), System.currentTimeMillis() - start);
+
+        for (long done = 0; done < props.getSessions(); done += SESSION_CHUNK) {
+            long chunk = Math.min(SESSION_CHUNK, props.getSessions() - done);
+            long chunkStart = System.currentTimeMillis();
+            jdbcTemplate.update("INSERT INTO pomodoro_sessions (user_id, task, start_at, end_at, duration_seconds, " +
+                    "interruptions, distraction_count, status, created_at) " +
+                    "SELECT s.user_id, 'bench', s.end_at - s.duration * interval '1 second', s.end_at, s.duration, 0, 0, " +
+                    "CASE WHEN random() < 0.85 THEN 'FINISHED' ELSE 'ABORTED' END, s.end_at " +
+                    "FROM (SELECT ? + floor(power(random(), 3) * ?)::bigint AS user_id, " +
+                    "(now() AT TIME ZONE 'UTC') - random() * ? * interval '1 day' AS end_at, " +
+                    "60 + floor(random() * 3540)::bigint AS duration " +
+                    "FROM generate_series(1, ?) g) s",
+                    firstUserId, props.getUsers(), props.getHistoryDays(), chunk);
+            log.info("[BenchmarkDataSeeder] Seeded {} / {} sessions ({}ms for this chunk)",
+                    done + chunk, props.getSessions(), System.currentTimeMillis() - chunkStart);
+        }
+
+        focusRollupService.backfill();
+        // Spread bench users over the regional boards
+        jdbcTemplate.update("UPDATE user_daily_focus SET region = CASE user_id % 3 " +
+                "WHEN 0 THEN 'asia' WHEN 1 THEN 'europe' ELSE 'americas' END " +
+                "WHERE user_id IN (" + BENCH_USERS + ")");
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE pomodoro_sessions");
+        jdbcTemplate.execute("ANALYZE user_daily_focus");
+        log.info("[BenchmarkDataSeeder] Dataset ready in {}ms", System.currentTimeMillis() - start);
+    }
+
+    public long count(String sql) {
+        Long value = jdbcTemplate.queryForObject(sql, Long.class);
+        return value != null ? value : 0L;
+    }
+
+    private void clear() {
+        log.info("[BenchmarkDataSeeder] Clearing previous bench data...");
+        jdbcTemplate.update("DELETE FROM leaderboard_entries WHERE user_id IN (" + BENCH_USERS + ")");
+        jdbcTemplate.update("DELETE FROM session_outbox WHERE user_id IN (" + BENCH_USERS + ")");
+        jdbcTemplate.update("DELETE FROM user_season_focus WHERE user_id IN (" + BENCH_USERS + ")");
+        jdbcTemplate.update("DELETE FROM user_stats WHERE user_id IN (" + BENCH_USERS + ")");
+        jdbcTemplate.update("DELETE FROM user_daily_focus WHERE user_id IN (" + BENCH_USERS + ")");
+        jdbcTemplate.update("DELETE FROM pomodoro_sessions WHERE user_id IN (" + BENCH_USERS + ")");
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN (" + BENCH_USERS + ")");
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'bench\\_%'");
+    }
+}
@@ -0,0 +1,31 @@
+package com.kiemnv.MindGardAPI.bench;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/** Knobs of the leaderboard benchmark (bench profile only, see application-bench.yml). */
+@Data
+@Component
+@Profile("bench")
+@ConfigurationProperties(prefix = "bench")
+public class BenchmarkProperties {
+    /** Free-form label stored with the results, e.g. a git sha or branch name. */
+    private String label = "dev";
+    private int users = 100_000;
+    private long sessions = 10_000_000L;
+    /** Days of history the seeded sessions are spread over. */
+    private int historyDays = 90;
+    /** Drop previously seeded bench data and seed again. */
+    private boolean reseed = false;
+    private int schedulerRuns = 3;
+    /** Sessions recorded one after another, each waited on until it reaches the rank index. */
+    private int writes = 300;
+    private int readers = 16;
+    private int readWarmupSeconds = 5;
+    private int readSeconds = 30;
+    private String outputDir = "target/bench";
+    /** Shut the application down once results are written. */
+    private boolean exitOnFinish = true;
+}
@@ -0,0 +1,55 @@
+package com.kiemnv.MindGardAPI.bench;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Append-only list of latency samples in nanoseconds.
+ * Not thread-safe: give each worker its own recorder and {@link #merge} them afterwards.
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+
+    public void record(long nanos) {
+        if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+        samples[count++] = nanos;
+    }
+
+    public void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.count; i++) record(other.samples[i]);
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /** Count, mean and nearest-rank percentiles in milliseconds. */
+    public Map<String, Object> summary() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("count", count);
+        if (count == 0) return out;
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long s : sorted) total += s;
+        out.put("meanMs", millis(total / count));
+        out.put("p50Ms", millis(percentile(sorted, 50)));
+        out.put("p90Ms", millis(percentile(sorted, 90)));
+        out.put("p99Ms", millis(percentile(sorted, 99)));
+        out.put("p999Ms", millis(percentile(sorted, 99.9)));
+        out.put("maxMs", millis(sorted[count - 1]));
+        return out;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
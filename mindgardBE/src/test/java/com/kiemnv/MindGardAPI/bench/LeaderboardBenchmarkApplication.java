@@ -0,0 +1,15 @@
+package com.kiemnv.MindGardAPI.bench;
+
+import com.kiemnv.MindGardAPI.MindGardApiApplication;
+import org.springframework.boot.SpringApplication;
+
+/**
+ * Launches the application with the bench profile and the test classpath, where the benchmark lives:
+ * ./mvnw spring-boot:test-run -Dspring-boot.run.arguments=--bench.label=$(git rev-parse --short HEAD)
+ */
+public class LeaderboardBenchmarkApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.from(MindGardApiApplication::main).withAdditionalProfiles("bench").run(args);
+    }
+}
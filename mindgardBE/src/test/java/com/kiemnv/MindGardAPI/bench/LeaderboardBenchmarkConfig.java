@@ -0,0 +1,216 @@
+package com.kiemnv.MindGardAPI.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kiemnv.MindGardAPI.dto.request.PomodoroRecordRequest;
+import com.kiemnv.MindGardAPI.entity.User;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardCursor;
+import com.kiemnv.MindGardAPI.leaderboard.LeaderboardMetric;
+import com.kiemnv.MindGardAPI.leaderboard.RankIndex;
+import com.kiemnv.MindGardAPI.leaderboard.RankedScore;
+import com.kiemnv.MindGardAPI.repository.UserRepository;
+import com.kiemnv.MindGardAPI.scheduler.LeaderboardScheduler;
+import com.kiemnv.MindGardAPI.service.LeaderboardRankCache;
+import com.kiemnv.MindGardAPI.service.LeaderboardService;
+import com.kiemnv.MindGardAPI.service.PomodoroService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Leaderboard benchmark, run with {@link LeaderboardBenchmarkApplication} (bench profile, test classpath).
+ * Seeds the dataset (see {@link BenchmarkDataSeeder}), then measures scheduler wall time,
+ * write-through latency per recorded session and read latency under concurrent readers.
+ * Results go to bench.output-dir as one JSON file per run, for diffing between versions.
+ * Scheduling is off under this profile, so nothing else touches the boards while measuring.
+ */
+@Slf4j
+@Configuration
+@Profile("bench")
+@RequiredArgsConstructor
+public class LeaderboardBenchmarkConfig {
+
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final long VISIBLE_POLL_MS = 5;
+    private static final long VISIBLE_TIMEOUT_MS = 10_000;
+
+    private final BenchmarkProperties props;
+    private final BenchmarkDataSeeder seeder;
+    private final LeaderboardScheduler leaderboardScheduler;
+    private final LeaderboardService leaderboardService;
+    private final PomodoroService pomodoroService;
+    private final LeaderboardRankCache rankCache;
+    private final UserRepository userRepository;
+    private final ApplicationContext context;
+
+    @Bean
+    public CommandLineRunner leaderboardBenchmark() {
+        return args -> {
+            Map<String, Object> results = new LinkedHashMap<>();
+            results.put("label", props.getLabel());
+            results.put("startedAt", LocalDateTime.now().toString());
+            results.put("jvm", Map.of(
+                    "version", System.getProperty("java.version"),
+                    "processors", Runtime.getRuntime().availableProcessors(),
+                    "maxHeapMb", Runtime.getRuntime().maxMemory() / (1024 * 1024)));
+
+            long seedStart = System.currentTimeMillis();
+            seeder.seed(props);
+            long firstUserId = seeder.count("SELECT MIN(id) FROM users WHERE username LIKE 'bench\\_%'");
+            results.put("dataset", Map.of(
+                    "users", seeder.count("SELECT COUNT(*) FROM users WHERE username LIKE 'bench\\_%'"),
+                    "sessions", seeder.count("SELECT COUNT(*) FROM pomodoro_sessions WHERE task = 'bench'"),
+                    "rollupRows", seeder.count("SELECT COUNT(*) FROM user_daily_focus"),
+                    "seedMs", System.currentTimeMillis() - seedStart));
+
+            results.put("scheduler", benchScheduler());
+            results.put("writeThrough", benchWriteThrough(firstUserId));
+            results.put("reads", benchReads(firstUserId));
+            results.put("finishedAt", LocalDateTime.now().toString());
+
+            File out = new File(props.getOutputDir(),
+                    "leaderboard-" + props.getLabel() + "-" + LocalDateTime.now().format(FILE_STAMP) + ".json");
+            out.getParentFile().mkdirs();
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(out, results);
+            log.info("[LeaderboardBenchmark] Results written to {}", out.getAbsolutePath());
+
+            if (props.isExitOnFinish()) System.exit(SpringApplication.exit(context, () -> 0));
+        };
+    }
+
+    /** Wall time of full scheduler runs; the first one also writes every board from scratch. */
+    private Map<String, Object> benchScheduler() {
+        List<Long> runsMs = new ArrayList<>();
+        for (int i = 0; i < props.getSchedulerRuns(); i++) {
+            long start = System.nanoTime();
+            leaderboardScheduler.computeAllLeaderboards();
+            runsMs.add((System.nanoTime() - start) / 1_000_000);
+            log.info("[LeaderboardBenchmark] Scheduler run {} took {}ms", i + 1, runsMs.get(i));
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("runsMs", runsMs);
+        out.put("bestMs", runsMs.stream().mapToLong(Long::longValue).min().orElse(0));
+        return out;
+    }
+
+    /**
+     * One session per iteration for a random bench user, through the production path:
+     * PomodoroService.record (session plus outbox event), then the projection worker and the
+     * leaderboard update queue. Times the request transaction, and the delay until the session
+     * shows in the user's daily rank index score.
+     */
+    private Map<String, Object> benchWriteThrough(long firstUserId) throws InterruptedException {
+        LatencyRecorder record = new LatencyRecorder();
+        LatencyRecorder visible = new LatencyRecorder();
+        int timeouts = 0;
+        String dailyKey = LeaderboardScheduler.boardKey("daily", LocalDate.now(), LeaderboardMetric.FOCUS, null);
+        for (int i = 0; i < props.getWrites(); i++) {
+            User user = userRepository.findById(randomUser(firstUserId)).orElseThrow();
+            long before = dailyScore(dailyKey, user.getId());
+            long start = System.nanoTime();
+            pomodoroService.record(user, new PomodoroRecordRequest(Instant.now().toString(), 25, "bench", false, null));
+            long recorded = System.nanoTime();
+            record.record(recorded - start);
+            long deadline = recorded + VISIBLE_TIMEOUT_MS * 1_000_000L;
+            while (dailyScore(dailyKey, user.getId()) == before && System.nanoTime() < deadline) {
+                Thread.sleep(VISIBLE_POLL_MS);
+            }
+            if (dailyScore(dailyKey, user.getId()) == before) {
+                timeouts++;
+            } else {
+                visible.record(System.nanoTime() - recorded);
+            }
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("record", record.summary());
+        out.put("visible", visible.summary());
+        out.put("timeouts", timeouts);
+        log.info("[LeaderboardBenchmark] Write-through: {}", out);
+        return out;
+    }
+
+    private long dailyScore(String dailyKey, long userId) {
+        RankIndex index = rankCache.peek(dailyKey);
+        Long score = index != null ? index.scoreOf(userId) : null;
+        return score != null ? score : 0L;
+    }
+
+    /** Concurrent readers mixing the top board, "around me" windows and keyset pages deep in the ranking. */
+    private Map<String, Object> benchReads(long firstUserId) throws Exception {
+        String[] operations = {"top", "aroundMe", "page"};
+        runReaders(firstUserId, operations, props.getReadWarmupSeconds());
+        List<LatencyRecorder[]> perThread = runReaders(firstUserId, operations, props.getReadSeconds());
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("readers", props.getReaders());
+        out.put("seconds", props.getReadSeconds());
+        long total = 0;
+        for (int op = 0; op < operations.length; op++) {
+            LatencyRecorder merged = new LatencyRecorder();
+            for (LatencyRecorder[] recorders : perThread) merged.merge(recorders[op]);
+            total += merged.count();
+            out.put(operations[op], merged.summary());
+        }
+        out.put("throughputPerSecond", props.getReadSeconds() > 0 ? total / props.getReadSeconds() : 0);
+        log.info("[LeaderboardBenchmark] Reads: {}", out);
+        return out;
+    }
+
+    private List<LatencyRecorder[]> runReaders(long firstUserId, String[] operations, int seconds) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(props.getReaders());
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        LocalDate today = LocalDate.now();
+        try {
+            List<Future<LatencyRecorder[]>> futures = new ArrayList<>();
+            for (int t = 0; t < props.getReaders(); t++) {
+                futures.add(pool.submit(() -> {
+                    LatencyRecorder[] recorders = new LatencyRecorder[operations.length];
+                    for (int op = 0; op < operations.length; op++) recorders[op] = new LatencyRecorder();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        int op = random.nextInt(operations.length);
+                        long start = System.nanoTime();
+                        switch (op) {
+                            case 0 -> leaderboardService.getCachedLeaderboard("weekly", today, LeaderboardMetric.FOCUS,
+                                    null, "global", null);
+                            case 1 -> leaderboardService.getRankWindow("weekly", today, LeaderboardMetric.FOCUS,
+                                    null, randomUser(firstUserId), 5);
+                            // Deep page: keyset anchor at a random weekly score (up to 40h)
+                            default -> leaderboardService.getRankPage("weekly", today, LeaderboardMetric.FOCUS, null,
+                                    LeaderboardCursor.encode(new RankedScore(0, random.nextLong(40 * 3600), 0)), 100);
+                        }
+                        recorders[op].record(System.nanoTime() - start);
+                    }
+                    return recorders;
+                }));
+            }
+            List<LatencyRecorder[]> results = new ArrayList<>();
+            for (Future<LatencyRecorder[]> future : futures) results.add(future.get());
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private long randomUser(long firstUserId) {
+        return firstUserId + ThreadLocalRandom.current().nextInt(props.getUsers());
+    }
+}
@@ -0,0 +1,74 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeaderboardArchiveCodecTest {
+
+    private static LeaderboardRow row(long userId, long score, int rank, Long totalSeconds, Integer previousRank) {
+        return LeaderboardRow.builder()
+                .userId(userId)
+                .score(score)
+                .rank(rank)
+                .totalSeconds(totalSeconds)
+                .previousRank(previousRank)
+                .build();
+    }
+
+    @Test
+    void roundTripsRowsWithNegativeDeltas() {
+        // userIds and focus seconds go down as well as up between rows, so deltas are negative too
+        List<LeaderboardRow> rows = List.of(
+                row(9_000_000_000L, 7_200, 1, 9_000L, 3),
+                row(5L, 3_600, 2, 1_200L, null),
+                row(Long.MAX_VALUE, 3_600, 3, 3_600L, 1),
+                row(1L, 60, 4, 0L, 2));
+
+        List<LeaderboardRow> decoded = LeaderboardArchiveCodec.decode(LeaderboardArchiveCodec.encode(rows, true));
+
+        assertThat(decoded).hasSize(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertThat(decoded.get(i).getUserId()).isEqualTo(rows.get(i).getUserId());
+            assertThat(decoded.get(i).getScore()).isEqualTo(rows.get(i).getScore());
+            assertThat(decoded.get(i).getRank()).isEqualTo(rows.get(i).getRank());
+            assertThat(decoded.get(i).getTotalSeconds()).isEqualTo(rows.get(i).getTotalSeconds());
+            assertThat(decoded.get(i).getPreviousRank()).isEqualTo(rows.get(i).getPreviousRank());
+        }
+        assertThat(decoded).extracting(LeaderboardRow::getTrend).containsExactly("up", "up", "down", "down");
+    }
+
+    @Test
+    void omitsPreviousRanksAndTrendsWhenNotStored() {
+        byte[] payload = LeaderboardArchiveCodec.encode(List.of(row(2L, 10, 1, null, 5)), false);
+
+        List<LeaderboardRow> decoded = LeaderboardArchiveCodec.decode(payload);
+
+        assertThat(LeaderboardArchiveCodec.hasPreviousRanks(payload)).isFalse();
+        assertThat(decoded.get(0).getPreviousRank()).isNull();
+        assertThat(decoded.get(0).getTrend()).isNull();
+        assertThat(decoded.get(0).getTotalSeconds()).isEqualTo(10L); // missing focus seconds default to the score
+    }
+
+    @Test
+    void roundTripsALargeBoard() {
+        List<LeaderboardRow> rows = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            rows.add(row((i * 7919L) % 100_003, 1_000_000 - i * 37L, i + 1, 1_000_000 - i * 37L + (i % 5) - 2, i % 3 == 0 ? null : i));
+        }
+
+        byte[] payload = LeaderboardArchiveCodec.encode(rows, true);
+        List<LeaderboardRow> decoded = LeaderboardArchiveCodec.decode(payload);
+
+        assertThat(LeaderboardArchiveCodec.hasPreviousRanks(payload)).isTrue();
+        assertThat(decoded).extracting(LeaderboardRow::getUserId)
+                .containsExactlyElementsOf(rows.stream().map(LeaderboardRow::getUserId).toList());
+        assertThat(decoded).extracting(LeaderboardRow::getTotalSeconds)
+                .containsExactlyElementsOf(rows.stream().map(LeaderboardRow::getTotalSeconds).toList());
+        assertThat(decoded).extracting(LeaderboardRow::getPreviousRank)
+                .containsExactlyElementsOf(rows.stream().map(LeaderboardRow::getPreviousRank).toList());
+    }
+}
@@ -0,0 +1,71 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIntHashMapTest {
+
+    @Test
+    void growsPastItsExpectedSize() {
+        LongIntHashMap map = new LongIntHashMap(2);
+        for (int i = 1; i <= 10_000; i++) map.put(i * 1_000_003L, i);
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (int i = 1; i <= 10_000; i++) assertThat(map.get(i * 1_000_003L, -1)).isEqualTo(i);
+        assertThat(map.get(7L, -1)).isEqualTo(-1);
+        assertThat(map.containsKey(7L)).isFalse();
+    }
+
+    @Test
+    void storesTheZeroKeyOutsideTheTable() {
+        LongIntHashMap map = new LongIntHashMap(4);
+
+        assertThat(map.containsKey(0L)).isFalse();
+        assertThat(map.get(0L, -1)).isEqualTo(-1);
+
+        map.put(0L, 5);
+        map.put(0L, 6);
+        map.put(-1L, 7);
+
+        assertThat(map.size()).isEqualTo(2);
+        assertThat(map.get(0L, -1)).isEqualTo(6);
+        assertThat(map.get(-1L, -1)).isEqualTo(7);
+    }
+
+    @Test
+    void keepsTheZeroKeyAcrossGrowth() {
+        LongIntHashMap map = new LongIntHashMap(1);
+        map.put(0L, 42);
+        for (int i = 1; i <= 100; i++) map.put(i, i);
+
+        assertThat(map.size()).isEqualTo(101);
+        assertThat(map.get(0L, -1)).isEqualTo(42);
+
+        Map<Long, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertThat(visited).hasSize(101).containsEntry(0L, 42).containsEntry(100L, 100);
+    }
+
+    @Test
+    void overwritesWithoutGrowingTheSize() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        map.put(3L, 1);
+        map.put(3L, 2);
+
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.get(3L, -1)).isEqualTo(2);
+    }
+
+    @Test
+    void ranksOfOrdersByScoreDescThenUserIdAsc() {
+        LongIntHashMap ranks = LongIntHashMap.ranksOf(Map.of(1L, 50L, 2L, 90L, 3L, 50L));
+
+        assertThat(ranks.get(2L, 0)).isEqualTo(1);
+        assertThat(ranks.get(1L, 0)).isEqualTo(2);
+        assertThat(ranks.get(3L, 0)).isEqualTo(3);
+    }
+}
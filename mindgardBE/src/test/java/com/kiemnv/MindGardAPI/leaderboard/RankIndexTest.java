@@ -0,0 +1,107 @@
+package com.kiemnv.MindGardAPI.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankIndexTest {
+
+    @Test
+    void ranksByScoreDescThenUserIdAsc() {
+        RankIndex index = RankIndex.of(Map.of(1L, 300L, 2L, 500L, 3L, 300L, 4L, 100L));
+
+        assertThat(index.rankOf(2L)).isEqualTo(1);
+        assertThat(index.rankOf(1L)).isEqualTo(2);
+        assertThat(index.rankOf(3L)).isEqualTo(3);
+        assertThat(index.rankOf(4L)).isEqualTo(4);
+        assertThat(index.rankOf(99L)).isNull();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void putMovesAUserAndReportsUnchangedScores() {
+        RankIndex index = RankIndex.of(Map.of(1L, 100L, 2L, 200L));
+
+        assertThat(index.put(1L, 100L)).isFalse();
+        assertThat(index.put(1L, 300L)).isTrue();
+
+        assertThat(index.rankOf(1L)).isEqualTo(1);
+        assertThat(index.rankOf(2L)).isEqualTo(2);
+        assertThat(index.scoreOf(1L)).isEqualTo(300L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void rangeReturnsRankWindows() {
+        RankIndex index = RankIndex.of(Map.of(1L, 10L, 2L, 20L, 3L, 30L, 4L, 40L, 5L, 50L));
+
+        assertThat(index.range(1, 2)).containsExactly(new RankedScore(4L, 40L, 2), new RankedScore(3L, 30L, 3));
+        assertThat(index.range(4, 10)).containsExactly(new RankedScore(1L, 10L, 5));
+        assertThat(index.range(5, 10)).isEmpty();
+        assertThat(index.range(0, 0)).isEmpty();
+    }
+
+    @Test
+    void afterContinuesFromAnAnchorThatMayBeGone() {
+        RankIndex index = RankIndex.of(Map.of(1L, 10L, 2L, 20L, 3L, 30L));
+
+        assertThat(index.after(30L, 3L, 10)).extracting(RankedScore::getUserId).containsExactly(2L, 1L);
+        index.remove(2L);
+        assertThat(index.after(20L, 2L, 10)).containsExactly(new RankedScore(1L, 10L, 2));
+    }
+
+    @Test
+    void removeDropsTheUserAndShiftsRanks() {
+        RankIndex index = RankIndex.of(Map.of(1L, 10L, 2L, 20L, 3L, 30L));
+
+        assertThat(index.remove(3L)).isTrue();
+        assertThat(index.remove(3L)).isFalse();
+
+        assertThat(index.rankOf(3L)).isNull();
+        assertThat(index.rankOf(2L)).isEqualTo(1);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void subsetIsReRankedFromOne() {
+        RankIndex index = RankIndex.of(Map.of(1L, 10L, 2L, 20L, 3L, 30L, 4L, 40L));
+
+        assertThat(index.subset(List.of(1L, 3L, 99L)))
+                .containsExactly(new RankedScore(3L, 30L, 1), new RankedScore(1L, 10L, 2));
+    }
+
+    @Test
+    void staysConsistentWithASortAfterRandomUpdates() {
+        Random random = new Random(42);
+        RankIndex index = new RankIndex();
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            long userId = random.nextInt(500);
+            if (random.nextInt(4) == 0) {
+                index.remove(userId);
+                expected.remove(userId);
+            } else {
+                long score = random.nextInt(100);
+                index.put(userId, score);
+                expected.put(userId, score);
+            }
+        }
+
+        List<Map.Entry<Long, Long>> sorted = new ArrayList<>(expected.entrySet());
+        sorted.sort((a, b) -> !a.getValue().equals(b.getValue())
+                ? Long.compare(b.getValue(), a.getValue())
+                : Long.compare(a.getKey(), b.getKey()));
+        List<RankedScore> all = index.range(0, expected.size());
+        assertThat(all).hasSize(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertThat(all.get(i)).isEqualTo(new RankedScore(sorted.get(i).getKey(), sorted.get(i).getValue(), i + 1));
+            assertThat(index.rankOf(sorted.get(i).getKey())).isEqualTo(i + 1);
+        }
+    }
+}
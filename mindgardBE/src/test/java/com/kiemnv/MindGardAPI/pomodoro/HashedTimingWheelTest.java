@@ -0,0 +1,67 @@
+package com.kiemnv.MindGardAPI.pomodoro;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimingWheelTest {
+
+    private static final long TICK_MS = 1000;
+    private static final int SLOTS = 8;
+
+    @Test
+    void firesOnlyOnceTheDeadlineTickIsReached() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(TICK_MS, SLOTS, 0);
+        wheel.schedule(1, 2_500, "a"); // rounded up to tick 3
+
+        assertThat(wheel.advance(2_999)).isEmpty();
+        assertThat(wheel.advance(3_000)).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void deadlinesBeyondOneRevolutionWaitForTheirRound() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(TICK_MS, SLOTS, 0);
+        wheel.schedule(1, 2_000, "near");
+        wheel.schedule(2, (2 + SLOTS) * TICK_MS, "one round later"); // same slot as "near"
+        wheel.schedule(3, (2 + 2 * SLOTS) * TICK_MS, "two rounds later");
+
+        assertThat(wheel.advance(2_000)).containsExactly("near");
+        assertThat(wheel.advance((1 + SLOTS) * TICK_MS)).isEmpty();
+        assertThat(wheel.advance((2 + SLOTS) * TICK_MS)).containsExactly("one round later");
+        assertThat(wheel.get(3)).isEqualTo("two rounds later");
+        assertThat(wheel.advance((2 + 2 * SLOTS) * TICK_MS)).containsExactly("two rounds later");
+    }
+
+    @Test
+    void aStallLongerThanOneRevolutionFiresEverythingDue() {
+        HashedTimingWheel<Integer> wheel = new HashedTimingWheel<>(TICK_MS, SLOTS, 0);
+        for (int i = 1; i <= 3 * SLOTS; i++) wheel.schedule(i, i * TICK_MS, i);
+
+        assertThat(wheel.advance(2L * SLOTS * TICK_MS)).hasSize(2 * SLOTS);
+        assertThat(wheel.size()).isEqualTo(SLOTS);
+    }
+
+    @Test
+    void cancelAndRescheduleRemoveTheOldTimeout() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(TICK_MS, SLOTS, 0);
+        wheel.schedule(1, 1_000, "cancelled");
+        wheel.schedule(2, 1_000, "moved");
+
+        assertThat(wheel.cancel(1)).isEqualTo("cancelled");
+        assertThat(wheel.cancel(1)).isNull();
+        wheel.schedule(2, 5_000, "moved");
+
+        assertThat(wheel.advance(4_000)).isEmpty();
+        assertThat(wheel.advance(5_000)).containsExactly("moved");
+    }
+
+    @Test
+    void aDeadlineInThePastFiresOnTheNextTick() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(TICK_MS, SLOTS, 10_000);
+        wheel.schedule(1, 0, "overdue");
+
+        assertThat(wheel.advance(10_999)).isEmpty();
+        assertThat(wheel.advance(11_000)).containsExactly("overdue");
+    }
+}